@@ -1,6 +1,7 @@
 plugins {
     `maven-publish`
     `java-library`
+    `java-test-fixtures`
     id("io.freefair.lombok") version "5.1.0"
 }
 
@@ -22,6 +23,9 @@ dependencies {
 
     compileOnly("org.slf4j:slf4j-api:1.7.28")
     compileOnly("org.jetbrains:annotations:19.0.0")
+    compileOnly("io.micrometer:micrometer-core:1.5.4")
+
+    testFixturesCompileOnly("org.slf4j:slf4j-api:1.7.28")
 
     testCompileOnly("org.junit.jupiter:junit-jupiter-api")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
@@ -30,6 +34,7 @@ dependencies {
     testImplementation("org.mockito:mockito-junit-jupiter:3.0.0")
     testImplementation("io.projectreactor:reactor-test")
     testImplementation("org.assertj:assertj-core:3.13.2")
+    testImplementation("io.micrometer:micrometer-core:1.5.4")
     testImplementation("org.testcontainers:junit-jupiter")
     testImplementation("ch.qos.logback:logback-classic:1.2.3")
 
@@ -0,0 +1,57 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+/**
+ * Orders scalar key values the way DynamoDB sorts range keys: numbers by value, strings by their UTF-8 bytes
+ * (the same as by code points) and binaries by their unsigned bytes.
+ */
+class AttributeValueComparator implements Comparator<AttributeValue>
+{
+    @Override
+    public int compare(AttributeValue left, AttributeValue right)
+    {
+        if (null != left.n() && null != right.n()) {
+            return new BigDecimal(left.n()).compareTo(new BigDecimal(right.n()));
+        }
+        if (null != left.s() && null != right.s()) {
+            return compareCodePoints(left.s(), right.s());
+        }
+        if (null != left.b() && null != right.b()) {
+            return compareUnsigned(left.b(), right.b());
+        }
+        throw new IllegalArgumentException("Can not compare " + left + " with " + right);
+    }
+
+    private static int compareCodePoints(String left, String right)
+    {
+        int i = 0;
+        int j = 0;
+        while (i < left.length() && j < right.length()) {
+            int l = left.codePointAt(i);
+            int r = right.codePointAt(j);
+            if (l != r) {
+                return Integer.compare(l, r);
+            }
+            i += Character.charCount(l);
+            j += Character.charCount(r);
+        }
+        return Integer.compare(left.length() - i, right.length() - j);
+    }
+
+    private static int compareUnsigned(SdkBytes left, SdkBytes right)
+    {
+        byte[] l = left.asByteArray();
+        byte[] r = right.asByteArray();
+        for (int i = 0; i < Math.min(l.length, r.length); i++) {
+            if (l[i] != r[i]) {
+                return Integer.compare(Byte.toUnsignedInt(l[i]), Byte.toUnsignedInt(r[i]));
+            }
+        }
+        return Integer.compare(l.length, r.length);
+    }
+}
@@ -23,11 +23,26 @@ public interface BaseRepository<T>
 {
     Mono<T> create(T item);
 
+    Flux<T> createAll(Flux<T> items);
+
     Mono<Void> delete(T item);
 
+    Mono<Void> deleteAll(Flux<T> items);
+
+    Mono<T> get(T key);
+
     Flux<T> getAll();
 
+    Flux<T> getAll(int totalSegments);
+
+    Flux<T> getByKeys(Flux<T> keys);
+
     Mono<T> update(T data);
 
+    /**
+     * Writes only the attributes that differ between {@code old} and {@code updated}, nothing when they are equal.
+     */
+    Mono<T> update(T old, T updated);
+
     CreateTableRequest createTable();
 }
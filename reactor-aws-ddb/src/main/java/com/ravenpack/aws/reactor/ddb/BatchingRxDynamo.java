@@ -0,0 +1,293 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.util.annotation.NonNull;
+import reactor.util.concurrent.Queues;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns single-key {@link #get(GetItemRequest)} calls into BatchGetItem requests of another {@link RxDynamo}.
+ * Keys of a table are collected until there are {@code maxBatchSize} of them or the {@code window} elapses, and
+ * every waiting {@link Mono} gets its item from the batch response:
+ * <pre>
+ * RxDynamo rxDynamo = BatchingRxDynamo.builder()
+ *     .delegate(new RxDynamoImpl(client))
+ *     .window(Duration.ofMillis(2))
+ *     .build();
+ * </pre>
+ * Gets asking for consistent reads or a projection are passed through, as BatchGetItem is shared by all of
+ * the keys of a batch. Every table batched keeps a subscription open until the instance is {@link #close() closed}.
+ */
+@Slf4j
+public class BatchingRxDynamo implements RxDynamo, AutoCloseable
+{
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+
+    private final RxDynamo delegate;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    @Builder
+    private BatchingRxDynamo(@NonNull RxDynamo delegate, int maxBatchSize, Duration window)
+    {
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize > 0 ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE;
+        this.window = Optional.ofNullable(window).orElse(DEFAULT_WINDOW);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> scan(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.scan(dynamoSearch);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelScan(
+        @NonNull DynamoSearch dynamoSearch,
+        int totalSegments,
+        int maxConcurrency)
+    {
+        return delegate.parallelScan(dynamoSearch, totalSegments, maxConcurrency);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> search(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.search(dynamoSearch);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> searchOrdered(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute)
+    {
+        return delegate.searchOrdered(dynamoSearch, rangeKeyAttribute);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelQuery(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute,
+        @NonNull List<AttributeValue> splitPoints,
+        int maxConcurrency)
+    {
+        return delegate.parallelQuery(dynamoSearch, rangeKeyAttribute, splitPoints, maxConcurrency);
+    }
+
+    @Override
+    public Mono<Page<Map<String, AttributeValue>>> searchPage(
+        @NonNull DynamoSearch dynamoSearch,
+        String cursor,
+        int limit)
+    {
+        return delegate.searchPage(dynamoSearch, cursor, limit);
+    }
+
+    @Override
+    public Flux<Page<Map<String, AttributeValue>>> searchPages(@NonNull DynamoSearch dynamoSearch, int pageSize)
+    {
+        return delegate.searchPages(dynamoSearch, pageSize);
+    }
+
+    @Override
+    public Mono<Long> count(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.count(dynamoSearch);
+    }
+
+    @Override
+    public Mono<Long> parallelCount(@NonNull DynamoSearch dynamoSearch, int totalSegments, int maxConcurrency)
+    {
+        return delegate.parallelCount(dynamoSearch, totalSegments, maxConcurrency);
+    }
+
+    @Override
+    public Mono<Boolean> exists(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.exists(dynamoSearch);
+    }
+
+    @Override
+    public Mono<Map<String, AttributeValue>> get(@NonNull GetItemRequest getItemRequest)
+    {
+        return Optional.of(getItemRequest)
+            .filter(it -> !closed)
+            .filter(it -> !Boolean.TRUE.equals(it.consistentRead()))
+            .filter(it -> it.attributesToGet().isEmpty() && null == it.projectionExpression())
+            .map(it -> Mono.<Map<String, AttributeValue>>create(
+                sink -> window(it.tableName()).next(new PendingGet(it.key(), sink))))
+            .orElseGet(() -> delegate.get(getItemRequest));
+    }
+
+    private FluxSink<PendingGet> window(String tableName)
+    {
+        return windows.computeIfAbsent(tableName, this::openWindow).getPending();
+    }
+
+    private Window openWindow(String tableName)
+    {
+        UnicastProcessor<PendingGet> pending = UnicastProcessor.create(Queues.<PendingGet>unboundedMultiproducer().get());
+
+        Disposable batches = pending.bufferTimeout(maxBatchSize, window)
+            .flatMap(batch -> dispatch(tableName, batch))
+            .subscribe();
+
+        return new Window(pending.sink(), batches);
+    }
+
+    /**
+     * Sends the keys collected so far and disposes the subscriptions of the tables. Gets still waiting for their
+     * batch then fail, and later gets are passed through.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        windows.keySet()
+            .forEach(tableName -> Optional.ofNullable(windows.remove(tableName)).ifPresent(Window::close));
+    }
+
+    /**
+     * Sends the keys of a batch in one go and completes every waiting get with its item, or empty when
+     * there was none.
+     */
+    private Mono<Void> dispatch(String tableName, List<PendingGet> batch)
+    {
+        Map<Map<String, AttributeValue>, List<PendingGet>> waiting = batch.stream()
+            .collect(Collectors.groupingBy(PendingGet::getKey));
+        Set<String> keyAttributes = batch.get(0).getKey().keySet();
+
+        return Flux.fromIterable(waiting.keySet())
+            .transform(delegate.batchGet(tableName))
+            .doOnNext(item -> Optional.ofNullable(waiting.remove(keyOf(item, keyAttributes)))
+                .ifPresent(gets -> gets.forEach(it -> it.getSink().success(item))))
+            .doOnComplete(() -> waiting.values()
+                .forEach(gets -> gets.forEach(it -> it.getSink().success())))
+            .doOnError(e -> waiting.values()
+                .forEach(gets -> gets.forEach(it -> it.getSink().error(e))))
+            .doOnCancel(() -> waiting.values()
+                .forEach(gets -> gets.forEach(it -> it.getSink().error(
+                    new CancellationException("batching of " + tableName + " is closed")))))
+            .then()
+            .onErrorResume(e -> {
+                log.warn("batch get on {} failed", tableName, e);
+                return Mono.empty();
+            });
+    }
+
+    private static Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item, Set<String> keyAttributes)
+    {
+        return keyAttributes.stream()
+            .filter(item::containsKey)
+            .collect(Collectors.toMap(it -> it, item::get));
+    }
+
+    @Override
+    public Function<Flux<Map<String, AttributeValue>>, Flux<Map<String, AttributeValue>>> batchGet(
+        @NonNull String tableName)
+    {
+        return delegate.batchGet(tableName);
+    }
+
+    @Override
+    public Function<Flux<WriteRequest>, Flux<WriteRequest>> batchWrite(@NonNull String tableName)
+    {
+        return delegate.batchWrite(tableName);
+    }
+
+    @Override
+    public Mono<Void> transactWrite(@NonNull List<TransactWriteItem> items)
+    {
+        return delegate.transactWrite(items);
+    }
+
+    @Override
+    public Mono<List<Map<String, AttributeValue>>> transactGet(@NonNull List<TransactGetItem> items)
+    {
+        return delegate.transactGet(items);
+    }
+
+    @Override
+    public Mono<PutItemResponse> save(PutItemRequest putItemRequest)
+    {
+        return delegate.save(putItemRequest);
+    }
+
+    @Override
+    public Mono<UpdateItemResponse> update(UpdateItemRequest updateItemRequest)
+    {
+        return delegate.update(updateItemRequest);
+    }
+
+    @Override
+    public Mono<DeleteItemResponse> delete(DeleteItemRequest deleteItemRequest)
+    {
+        return delegate.delete(deleteItemRequest);
+    }
+
+    @Override
+    public Mono<CreateTableResponse> createTable(CreateTableRequest createTableRequest)
+    {
+        return delegate.createTable(createTableRequest);
+    }
+
+    @Override
+    public Mono<DeleteTableResponse> deleteTable(String name)
+    {
+        return delegate.deleteTable(name);
+    }
+
+    @Value
+    private static class Window
+    {
+        FluxSink<PendingGet> pending;
+        Disposable batches;
+
+        void close()
+        {
+            pending.complete();
+            batches.dispose();
+        }
+    }
+
+    @Value
+    private static class PendingGet
+    {
+        Map<String, AttributeValue> key;
+        MonoSink<Map<String, AttributeValue>> sink;
+    }
+}
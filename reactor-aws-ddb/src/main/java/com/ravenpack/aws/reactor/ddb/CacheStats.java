@@ -0,0 +1,11 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Value;
+
+@Value
+public class CacheStats
+{
+    long hits;
+    long misses;
+    long evictions;
+}
@@ -0,0 +1,284 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import com.ravenpack.aws.reactor.ddb.mapper.LiveMappingDescription;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.NonNull;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache in front of another {@link RxDynamo}. Items read by key from the tables with a configured
+ * time to live are kept in a bounded LRU cache, and dropped again when they are written through this instance.
+ * Writes done by other processes are only picked up once the entry expires; strongly consistent reads always go
+ * to the delegate.
+ * The key attributes of a table are taken from its mapping when one is given, so writes find the entries to drop
+ * even before the first read by key.
+ * <pre>
+ * RxDynamo rxDynamo = CachingRxDynamo.builder()
+ *     .delegate(new RxDynamoImpl(client))
+ *     .maximumSize(100_000)
+ *     .timeToLive("Currency", Duration.ofMinutes(5))
+ *     .mapping("Currency", CurrencyRepository.CURRENCY)
+ *     .build();
+ * </pre>
+ */
+public class CachingRxDynamo implements RxDynamo
+{
+    private static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final RxDynamo delegate;
+    private final Map<String, Duration> timeToLives;
+    private final ItemCache cache;
+
+    @Builder
+    private CachingRxDynamo(
+        @NonNull RxDynamo delegate,
+        int maximumSize,
+        @Singular Map<String, Duration> timeToLives,
+        @Singular Map<String, LiveMappingDescription<?>> mappings)
+    {
+        this.delegate = delegate;
+        this.timeToLives = timeToLives;
+        this.cache = new ItemCache(maximumSize > 0 ? maximumSize : DEFAULT_MAXIMUM_SIZE, mappings.entrySet()
+            .stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, it -> it.getValue().keyAttributeNames())));
+    }
+
+    public CacheStats getStats()
+    {
+        return cache.stats();
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> scan(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.scan(dynamoSearch);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelScan(
+        @NonNull DynamoSearch dynamoSearch,
+        int totalSegments,
+        int maxConcurrency)
+    {
+        return delegate.parallelScan(dynamoSearch, totalSegments, maxConcurrency);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> search(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.search(dynamoSearch);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> searchOrdered(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute)
+    {
+        return delegate.searchOrdered(dynamoSearch, rangeKeyAttribute);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelQuery(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute,
+        @NonNull List<AttributeValue> splitPoints,
+        int maxConcurrency)
+    {
+        return delegate.parallelQuery(dynamoSearch, rangeKeyAttribute, splitPoints, maxConcurrency);
+    }
+
+    @Override
+    public Mono<Page<Map<String, AttributeValue>>> searchPage(
+        @NonNull DynamoSearch dynamoSearch,
+        String cursor,
+        int limit)
+    {
+        return delegate.searchPage(dynamoSearch, cursor, limit);
+    }
+
+    @Override
+    public Flux<Page<Map<String, AttributeValue>>> searchPages(@NonNull DynamoSearch dynamoSearch, int pageSize)
+    {
+        return delegate.searchPages(dynamoSearch, pageSize);
+    }
+
+    @Override
+    public Mono<Long> count(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.count(dynamoSearch);
+    }
+
+    @Override
+    public Mono<Long> parallelCount(@NonNull DynamoSearch dynamoSearch, int totalSegments, int maxConcurrency)
+    {
+        return delegate.parallelCount(dynamoSearch, totalSegments, maxConcurrency);
+    }
+
+    @Override
+    public Mono<Boolean> exists(@NonNull DynamoSearch dynamoSearch)
+    {
+        return delegate.exists(dynamoSearch);
+    }
+
+    @Override
+    public Mono<Map<String, AttributeValue>> get(@NonNull GetItemRequest getItemRequest)
+    {
+        String tableName = getItemRequest.tableName();
+
+        return timeToLive(tableName)
+            .filter(it -> getItemRequest.attributesToGet().isEmpty() && null == getItemRequest.projectionExpression())
+            .filter(it -> !Boolean.TRUE.equals(getItemRequest.consistentRead()))
+            .map(ttl -> Mono.defer(() -> Mono.justOrEmpty(cache.get(tableName, getItemRequest.key())))
+                .switchIfEmpty(Mono.defer(() -> {
+                    long stamp = cache.stamp();
+                    return delegate.get(getItemRequest)
+                        .doOnNext(item -> cache.put(tableName, item, ttl.toNanos(), stamp));
+                })))
+            .orElseGet(() -> delegate.get(getItemRequest));
+    }
+
+    @Override
+    public Function<Flux<Map<String, AttributeValue>>, Flux<Map<String, AttributeValue>>> batchGet(
+        @NonNull String tableName)
+    {
+        Function<Flux<Map<String, AttributeValue>>, Flux<Map<String, AttributeValue>>> fetch =
+            delegate.batchGet(tableName);
+
+        return timeToLive(tableName)
+            .<Function<Flux<Map<String, AttributeValue>>, Flux<Map<String, AttributeValue>>>>map(
+                ttl -> keys -> Flux.defer(() -> {
+                    long stamp = cache.stamp();
+                    return keys
+                        .map(key -> new Lookup(key, cache.get(tableName, key)))
+                        .publish(lookups -> Flux.merge(
+                            lookups.filter(Lookup::isHit)
+                                .map(Lookup::getItem),
+                            lookups.filter(it -> !it.isHit())
+                                .map(Lookup::getKey)
+                                .transform(fetch)
+                                .doOnNext(item -> cache.put(tableName, item, ttl.toNanos(), stamp))));
+                }))
+            .orElse(fetch);
+    }
+
+    @Override
+    public Function<Flux<WriteRequest>, Flux<WriteRequest>> batchWrite(@NonNull String tableName)
+    {
+        Function<Flux<WriteRequest>, Flux<WriteRequest>> write = delegate.batchWrite(tableName);
+
+        return requests -> requests
+            .doOnNext(it -> invalidate(tableName, it))
+            .transform(write)
+            .doOnNext(it -> invalidate(tableName, it));
+    }
+
+    @Override
+    public Mono<Void> transactWrite(@NonNull List<TransactWriteItem> items)
+    {
+        return delegate.transactWrite(items)
+            .doFirst(() -> items.forEach(this::invalidate))
+            .doFinally(signal -> items.forEach(this::invalidate));
+    }
+
+    @Override
+    public Mono<List<Map<String, AttributeValue>>> transactGet(@NonNull List<TransactGetItem> items)
+    {
+        return delegate.transactGet(items);
+    }
+
+    @Override
+    public Mono<PutItemResponse> save(PutItemRequest putItemRequest)
+    {
+        return delegate.save(putItemRequest)
+            .doFirst(() -> cache.invalidate(putItemRequest.tableName(), putItemRequest.item()))
+            .doOnSuccess(it -> cache.invalidate(putItemRequest.tableName(), putItemRequest.item()));
+    }
+
+    @Override
+    public Mono<UpdateItemResponse> update(UpdateItemRequest updateItemRequest)
+    {
+        return delegate.update(updateItemRequest)
+            .doFirst(() -> cache.invalidate(updateItemRequest.tableName(), updateItemRequest.key()))
+            .doOnSuccess(it -> cache.invalidate(updateItemRequest.tableName(), updateItemRequest.key()));
+    }
+
+    @Override
+    public Mono<DeleteItemResponse> delete(DeleteItemRequest deleteItemRequest)
+    {
+        return delegate.delete(deleteItemRequest)
+            .doFirst(() -> cache.invalidate(deleteItemRequest.tableName(), deleteItemRequest.key()))
+            .doOnSuccess(it -> cache.invalidate(deleteItemRequest.tableName(), deleteItemRequest.key()));
+    }
+
+    @Override
+    public Mono<CreateTableResponse> createTable(CreateTableRequest createTableRequest)
+    {
+        return delegate.createTable(createTableRequest);
+    }
+
+    @Override
+    public Mono<DeleteTableResponse> deleteTable(String name)
+    {
+        return delegate.deleteTable(name)
+            .doOnSuccess(it -> cache.invalidateAll(name));
+    }
+
+    private Optional<Duration> timeToLive(String tableName)
+    {
+        return Optional.ofNullable(timeToLives.get(tableName));
+    }
+
+    private void invalidate(String tableName, WriteRequest writeRequest)
+    {
+        Optional.ofNullable(writeRequest.putRequest())
+            .ifPresent(it -> cache.invalidate(tableName, it.item()));
+        Optional.ofNullable(writeRequest.deleteRequest())
+            .ifPresent(it -> cache.invalidate(tableName, it.key()));
+    }
+
+    private void invalidate(TransactWriteItem item)
+    {
+        Optional.ofNullable(item.put())
+            .ifPresent(it -> cache.invalidate(it.tableName(), it.item()));
+        Optional.ofNullable(item.update())
+            .ifPresent(it -> cache.invalidate(it.tableName(), it.key()));
+        Optional.ofNullable(item.delete())
+            .ifPresent(it -> cache.invalidate(it.tableName(), it.key()));
+    }
+
+    @Value
+    private static class Lookup
+    {
+        Map<String, AttributeValue> key;
+        Map<String, AttributeValue> item;
+
+        boolean isHit()
+        {
+            return null != item;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.NonNull;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+
+/**
+ * Governs how much capacity {@link RxDynamoImpl} may consume. It is asked for permission before every request
+ * and told how much capacity the request consumed once the response arrives.
+ */
+public interface CapacityLimiter
+{
+    CapacityLimiter UNLIMITED = new CapacityLimiter()
+    {
+        @Override
+        public Mono<Void> acquire(@NonNull String tableName, @NonNull CapacityType capacityType)
+        {
+            return Mono.empty();
+        }
+
+        @Override
+        public void consumed(@NonNull CapacityType capacityType, @NonNull ConsumedCapacity consumedCapacity)
+        {
+        }
+    };
+
+    /**
+     * Completes when a request against {@code tableName} may be sent.
+     */
+    Mono<Void> acquire(@NonNull String tableName, @NonNull CapacityType capacityType);
+
+    void consumed(@NonNull CapacityType capacityType, @NonNull ConsumedCapacity consumedCapacity);
+
+    enum CapacityType
+    {
+        READ,
+        WRITE
+    }
+}
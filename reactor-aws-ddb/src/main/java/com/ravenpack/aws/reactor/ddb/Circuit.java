@@ -0,0 +1,40 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import java.time.Duration;
+
+/**
+ * Throttled requests to a table counted in a row. Reaching the threshold opens the circuit for a while;
+ * once that elapses requests go through again, and the next throttled one opens it right away until some request
+ * succeeds.
+ */
+class Circuit
+{
+    private final int threshold;
+    private final long openForNanos;
+    private int throttled;
+    private long openedAt;
+
+    Circuit(int threshold, Duration openFor)
+    {
+        this.threshold = threshold;
+        this.openForNanos = openFor.toNanos();
+    }
+
+    synchronized boolean isOpen()
+    {
+        return threshold > 0 && throttled >= threshold && System.nanoTime() - openedAt < openForNanos;
+    }
+
+    synchronized void throttled()
+    {
+        throttled++;
+        if (threshold > 0 && throttled >= threshold) {
+            openedAt = System.nanoTime();
+        }
+    }
+
+    synchronized void succeeded()
+    {
+        throttled = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Getter;
+
+/**
+ * A request that was not sent because its table has been throttling too many requests in a row.
+ */
+@Getter
+public class CircuitOpenException extends RuntimeException
+{
+    private final String tableName;
+
+    CircuitOpenException(String tableName)
+    {
+        super("Circuit of table " + tableName + " is open");
+        this.tableName = tableName;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+
+/**
+ * Runs at most {@code limit} of the requests given to {@link #run(Mono)} at the same time; the others wait, in
+ * order, for one of them to terminate. Used where many streams are subscribed at once, like the searches of an
+ * ordered merge, which all wait for their first item before the merge emits anything.
+ */
+class ConcurrencyLimit
+{
+    static final ConcurrencyLimit UNLIMITED = new ConcurrencyLimit(0)
+    {
+        @Override
+        <T> Mono<T> run(Mono<T> request)
+        {
+            return request;
+        }
+    };
+
+    private final FluxSink<Mono<?>> requests;
+
+    ConcurrencyLimit(int limit)
+    {
+        UnicastProcessor<Mono<?>> processor = UnicastProcessor.create();
+        this.requests = processor.sink();
+        if (limit > 0) {
+            processor.flatMap(it -> it, limit).subscribe();
+        }
+    }
+
+    <T> Mono<T> run(Mono<T> request)
+    {
+        return Mono.create(sink -> {
+            MonoProcessor<Void> cancelled = MonoProcessor.create();
+            sink.onCancel(cancelled::onComplete);
+
+            requests.next(request.takeUntilOther(cancelled)
+                              .doOnSuccess(sink::success)
+                              .doOnError(sink::error)
+                              .onErrorResume(e -> Mono.empty()));
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import com.ravenpack.aws.reactor.ddb.CapacityLimiter.CapacityType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import reactor.util.annotation.NonNull;
+import reactor.util.annotation.Nullable;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+
+import java.time.Duration;
+
+/**
+ * Receives measurements of every request {@link RxDynamoImpl} sends. A scan or query reports each of its pages
+ * as a request. The index name is null for requests against the table itself.
+ */
+public interface DynamoMetrics
+{
+    DynamoMetrics NOOP = new DynamoMetrics()
+    {
+        @Override
+        public void request(
+            @NonNull Operation operation,
+            @NonNull String tableName,
+            @Nullable String indexName,
+            @NonNull Duration latency,
+            @Nullable Throwable error)
+        {
+        }
+
+        @Override
+        public void items(@NonNull Operation operation, @NonNull String tableName, @Nullable String indexName, int count)
+        {
+        }
+
+        @Override
+        public void consumed(@NonNull Operation operation, @NonNull ConsumedCapacity consumedCapacity)
+        {
+        }
+
+        @Override
+        public void throttled(@NonNull Operation operation, @NonNull String tableName, int count)
+        {
+        }
+    };
+
+    /**
+     * A request that completed, successfully or with {@code error}, after {@code latency}.
+     */
+    void request(
+        @NonNull Operation operation,
+        @NonNull String tableName,
+        @Nullable String indexName,
+        @NonNull Duration latency,
+        @Nullable Throwable error);
+
+    /**
+     * Items returned by a single request.
+     */
+    void items(@NonNull Operation operation, @NonNull String tableName, @Nullable String indexName, int count);
+
+    void consumed(@NonNull Operation operation, @NonNull ConsumedCapacity consumedCapacity);
+
+    /**
+     * Requests, or items of a batch, rejected for lack of capacity.
+     */
+    void throttled(@NonNull Operation operation, @NonNull String tableName, int count);
+
+    @Getter
+    @AllArgsConstructor
+    enum Operation
+    {
+        SCAN(CapacityType.READ),
+        QUERY(CapacityType.READ),
+        GET(CapacityType.READ),
+        BATCH_GET(CapacityType.READ),
+        TRANSACT_GET(CapacityType.READ),
+        PUT(CapacityType.WRITE),
+        UPDATE(CapacityType.WRITE),
+        DELETE(CapacityType.WRITE),
+        BATCH_WRITE(CapacityType.WRITE),
+        TRANSACT_WRITE(CapacityType.WRITE);
+
+        private final CapacityType capacityType;
+    }
+}
@@ -24,4 +24,6 @@ public class DynamoSearch
     Map<String, AttributeValue> expressionAttributeValues;
     @Builder.Default
     Map<String, Condition> filterConditions = Collections.emptyMap();
+    Integer limit;
+    Map<String, AttributeValue> exclusiveStartKey;
 }
@@ -0,0 +1,166 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Value;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Translates the key and filter conditions of a {@link DynamoSearch} into KeyConditionExpression,
+ * FilterExpression and ProjectionExpression, in a single pass over the conditions. All attribute names and values
+ * are placeholders.
+ */
+class ExpressionCompiler
+{
+    /**
+     * The most values DynamoDB accepts in the list of an IN comparison.
+     */
+    static final int MAX_IN_VALUES = 100;
+
+    /**
+     * @throws IllegalArgumentException when a key condition is IN, which a KeyConditionExpression does not allow;
+     *                                  such searches are fanned out into a search per value first. Also when a
+     *                                  filter condition is IN more than {@link #MAX_IN_VALUES} values
+     */
+    SearchExpressions compile(DynamoSearch dynamoSearch)
+    {
+        dynamoSearch.getKeyConditions()
+            .entrySet()
+            .stream()
+            .filter(it -> ComparisonOperator.IN == it.getValue().comparisonOperator())
+            .findAny()
+            .ifPresent(it -> {
+                throw new IllegalArgumentException("IN key condition on " + it.getKey() + " has to be fanned out");
+            });
+        Optional.ofNullable(dynamoSearch.getFilterConditions())
+            .map(Map::entrySet)
+            .orElseGet(Collections::emptySet)
+            .stream()
+            .filter(it -> ComparisonOperator.IN == it.getValue().comparisonOperator())
+            .filter(it -> it.getValue().attributeValueList().size() > MAX_IN_VALUES)
+            .findAny()
+            .ifPresent(it -> {
+                throw new IllegalArgumentException("IN filter condition on " + it.getKey() + " has "
+                                                       + it.getValue().attributeValueList().size()
+                                                       + " values, DynamoDB allows at most " + MAX_IN_VALUES);
+            });
+
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+
+        String keyConditionExpression = bind("k", dynamoSearch.getKeyConditions(), names, values);
+        String filterExpression = Optional.ofNullable(bind("f", dynamoSearch.getFilterConditions(), names, values))
+            .map(it -> Optional.ofNullable(dynamoSearch.getFilterExpression())
+                .map(custom -> "(" + it + ") AND (" + custom + ")")
+                .orElse(it))
+            .orElse(dynamoSearch.getFilterExpression());
+        Optional.ofNullable(dynamoSearch.getExpressionAttributeValues()).ifPresent(values::putAll);
+
+        String projectionExpression = Optional.ofNullable(dynamoSearch.getAttributeNames())
+            .filter(it -> !it.isEmpty())
+            .map(attributes -> IntStream.range(0, attributes.size())
+                .mapToObj(i -> {
+                    names.put("#p" + i, attributes.get(i));
+                    return "#p" + i;
+                })
+                .collect(Collectors.joining(", ")))
+            .orElse(null);
+
+        return new SearchExpressions(keyConditionExpression, filterExpression, projectionExpression,
+                                     names, values);
+    }
+
+    /**
+     * Adds the names and values of the conditions to the given maps.
+     *
+     * @return the expression of the conditions, or null when there are none
+     */
+    private static String bind(
+        String prefix,
+        Map<String, Condition> conditions,
+        Map<String, String> names,
+        Map<String, AttributeValue> values)
+    {
+        if (null == conditions || conditions.isEmpty()) {
+            return null;
+        }
+
+        List<String> expressions = new ArrayList<>(conditions.size());
+
+        int attribute = 0;
+        for (Map.Entry<String, Condition> entry : conditions.entrySet()) {
+            String name = "#" + prefix + attribute;
+            names.put(name, entry.getKey());
+
+            List<AttributeValue> attributeValues = entry.getValue().attributeValueList();
+            List<String> placeholders = new ArrayList<>(attributeValues.size());
+            for (int value = 0; value < attributeValues.size(); value++) {
+                String placeholder = valuePlaceholder(prefix, attribute, value);
+                values.put(placeholder, attributeValues.get(value));
+                placeholders.add(placeholder);
+            }
+
+            expressions.add(expression(entry.getValue().comparisonOperator(), name, placeholders));
+            attribute++;
+        }
+        return String.join(" AND ", expressions);
+    }
+
+    private static String expression(ComparisonOperator operator, String name, List<String> values)
+    {
+        switch (operator) {
+            case EQ:
+                return name + " = " + values.get(0);
+            case NE:
+                return name + " <> " + values.get(0);
+            case LE:
+                return name + " <= " + values.get(0);
+            case LT:
+                return name + " < " + values.get(0);
+            case GE:
+                return name + " >= " + values.get(0);
+            case GT:
+                return name + " > " + values.get(0);
+            case BETWEEN:
+                return name + " BETWEEN " + values.get(0) + " AND " + values.get(1);
+            case IN:
+                return name + " IN (" + String.join(", ", values) + ")";
+            case BEGINS_WITH:
+                return "begins_with(" + name + ", " + values.get(0) + ")";
+            case CONTAINS:
+                return "contains(" + name + ", " + values.get(0) + ")";
+            case NOT_CONTAINS:
+                return "NOT contains(" + name + ", " + values.get(0) + ")";
+            case NULL:
+                return "attribute_not_exists(" + name + ")";
+            case NOT_NULL:
+                return "attribute_exists(" + name + ")";
+            default:
+                throw new IllegalArgumentException("Unsupported comparison operator: " + operator);
+        }
+    }
+
+    private static String valuePlaceholder(String prefix, int attribute, int value)
+    {
+        return ":" + prefix + attribute + "_" + value;
+    }
+
+    @Value
+    static class SearchExpressions
+    {
+        String keyConditionExpression;
+        String filterExpression;
+        String projectionExpression;
+        Map<String, String> names;
+        Map<String, AttributeValue> values;
+    }
+}
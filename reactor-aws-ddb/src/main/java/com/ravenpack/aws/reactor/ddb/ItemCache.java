@@ -0,0 +1,157 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Value;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache of items, keyed by table name and primary key.
+ * Key attribute names come from the mappings of the tables, otherwise they are learnt from the keys items are
+ * looked up with, which allows to find the cache entry of a written item.
+ * <p>
+ * Every write stamps the keys it touches, so an item read before the write and returned after it is not cached:
+ * {@link #put} only stores an item when its key was not written since the {@link #stamp()} taken before reading it.
+ * Stamps are kept per stripe of keys, so a write may also prevent caching an unrelated item of the same stripe.
+ */
+class ItemCache
+{
+    private static final int STRIPES = 1024;
+
+    private final int maximumSize;
+    private final Map<CacheKey, CacheEntry> entries;
+    private final Map<String, Set<String>> keyAttributes;
+    private final long[] lastWrites = new long[STRIPES];
+    private long writes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ItemCache(int maximumSize, Map<String, Set<String>> keyAttributes)
+    {
+        this.maximumSize = maximumSize;
+        this.keyAttributes = new ConcurrentHashMap<>(keyAttributes);
+        this.entries = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest)
+            {
+                boolean evict = size() > ItemCache.this.maximumSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * @return the cached item, or null when it is missing or expired
+     */
+    Map<String, AttributeValue> get(String tableName, Map<String, AttributeValue> key)
+    {
+        keyAttributes.putIfAbsent(tableName, Collections.unmodifiableSet(new HashSet<>(key.keySet())));
+        CacheKey cacheKey = new CacheKey(tableName, keyOf(tableName, key));
+
+        synchronized (entries) {
+            CacheEntry entry = entries.get(cacheKey);
+            if (null != entry && entry.getExpiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.getItem();
+            }
+            if (null != entry) {
+                entries.remove(cacheKey);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * To be taken before reading the items that are then {@link #put}.
+     */
+    long stamp()
+    {
+        synchronized (entries) {
+            return writes;
+        }
+    }
+
+    /**
+     * Caches the item, unless its key was written since {@code stamp}.
+     */
+    void put(String tableName, Map<String, AttributeValue> item, long timeToLiveNanos, long stamp)
+    {
+        CacheKey cacheKey = new CacheKey(tableName, keyOf(tableName, item));
+        CacheEntry entry = new CacheEntry(item, System.nanoTime() + timeToLiveNanos);
+        synchronized (entries) {
+            if (lastWrites[stripe(cacheKey)] <= stamp) {
+                entries.put(cacheKey, entry);
+            }
+        }
+    }
+
+    /**
+     * Drops the entry of the item with the same key as {@code item}, which may be a whole item or just its key.
+     */
+    void invalidate(String tableName, Map<String, AttributeValue> item)
+    {
+        if (!keyAttributes.containsKey(tableName)) {
+            return;
+        }
+        CacheKey cacheKey = new CacheKey(tableName, keyOf(tableName, item));
+        synchronized (entries) {
+            lastWrites[stripe(cacheKey)] = ++writes;
+            entries.remove(cacheKey);
+        }
+    }
+
+    void invalidateAll(String tableName)
+    {
+        synchronized (entries) {
+            Arrays.fill(lastWrites, ++writes);
+            entries.keySet().removeIf(it -> it.getTableName().equals(tableName));
+        }
+    }
+
+    CacheStats stats()
+    {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Map<String, AttributeValue> keyOf(String tableName, Map<String, AttributeValue> item)
+    {
+        return keyAttributes.getOrDefault(tableName, item.keySet())
+            .stream()
+            .filter(item::containsKey)
+            .collect(Collectors.toMap(it -> it, item::get));
+    }
+
+    private static int stripe(CacheKey cacheKey)
+    {
+        return Math.floorMod(cacheKey.hashCode(), STRIPES);
+    }
+
+    @Value
+    private static class CacheKey
+    {
+        String tableName;
+        Map<String, AttributeValue> key;
+    }
+
+    @Value
+    private static class CacheEntry
+    {
+        Map<String, AttributeValue> item;
+        long expiresAt;
+    }
+}
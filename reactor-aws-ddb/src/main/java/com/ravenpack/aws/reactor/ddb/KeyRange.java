@@ -0,0 +1,107 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Value;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Range of range key values, unbounded when a bound is null. A key condition can only express inclusive
+ * bounds, so excluded bounds are dropped from the query results by {@link #contains(AttributeValue)}.
+ */
+@Value
+class KeyRange
+{
+    private static final AttributeValueComparator COMPARATOR = new AttributeValueComparator();
+
+    AttributeValue lower;
+    boolean lowerExcluded;
+    AttributeValue upper;
+    boolean upperExcluded;
+
+    /**
+     * The range of a range key condition, or empty for conditions which are not a range, like EQ.
+     */
+    static Optional<KeyRange> of(Condition condition)
+    {
+        if (null == condition) {
+            return Optional.of(new KeyRange(null, false, null, false));
+        }
+
+        List<AttributeValue> values = condition.attributeValueList();
+        switch (condition.comparisonOperator()) {
+            case BETWEEN:
+                return Optional.of(new KeyRange(values.get(0), false, values.get(1), false));
+            case GE:
+                return Optional.of(new KeyRange(values.get(0), false, null, false));
+            case GT:
+                return Optional.of(new KeyRange(values.get(0), true, null, false));
+            case LE:
+                return Optional.of(new KeyRange(null, false, values.get(0), false));
+            case LT:
+                return Optional.of(new KeyRange(null, false, values.get(0), true));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * Consecutive sub-ranges, split at the points falling inside this range. Each point belongs to the
+     * sub-range it starts.
+     */
+    List<KeyRange> split(List<AttributeValue> points)
+    {
+        List<AttributeValue> inside = points.stream()
+            .filter(it -> (null == lower || COMPARATOR.compare(it, lower) > 0)
+                && (null == upper || COMPARATOR.compare(it, upper) < 0))
+            .sorted(COMPARATOR)
+            .distinct()
+            .collect(Collectors.toList());
+
+        List<KeyRange> ranges = new ArrayList<>();
+        AttributeValue from = lower;
+        boolean fromExcluded = lowerExcluded;
+        for (AttributeValue point : inside) {
+            ranges.add(new KeyRange(from, fromExcluded, point, true));
+            from = point;
+            fromExcluded = false;
+        }
+        ranges.add(new KeyRange(from, fromExcluded, upper, upperExcluded));
+        return ranges;
+    }
+
+    /**
+     * The key condition selecting this range, empty when it is unbounded.
+     */
+    Optional<Condition> condition()
+    {
+        if (null != lower && null != upper) {
+            return Optional.of(condition(ComparisonOperator.BETWEEN, lower, upper));
+        }
+        if (null != lower) {
+            return Optional.of(condition(ComparisonOperator.GE, lower));
+        }
+        return Optional.ofNullable(upper).map(it -> condition(ComparisonOperator.LE, it));
+    }
+
+    boolean contains(AttributeValue value)
+    {
+        return null == value
+            || !(lowerExcluded && COMPARATOR.compare(value, lower) == 0)
+            && !(upperExcluded && COMPARATOR.compare(value, upper) == 0);
+    }
+
+    private static Condition condition(ComparisonOperator operator, AttributeValue... values)
+    {
+        return Condition.builder()
+            .comparisonOperator(operator)
+            .attributeValueList(Arrays.asList(values))
+            .build();
+    }
+}
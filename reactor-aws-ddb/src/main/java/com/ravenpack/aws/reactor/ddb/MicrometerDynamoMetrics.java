@@ -0,0 +1,85 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import reactor.util.annotation.NonNull;
+import reactor.util.annotation.Nullable;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Publishes {@link DynamoMetrics} to a Micrometer {@link MeterRegistry}:
+ * <ul>
+ * <li>{@code ddb.requests} - timer with a percentile histogram, tagged with the outcome and the exception</li>
+ * <li>{@code ddb.items} - distribution of the number of items per request</li>
+ * <li>{@code ddb.consumed.capacity} - capacity units consumed</li>
+ * <li>{@code ddb.throttled} - throttled requests and unprocessed batch items</li>
+ * </ul>
+ * All of them are tagged with the table, the index ({@code none} for the table itself) and the operation.
+ * Micrometer is an optional dependency, only needed when this class is used.
+ */
+@AllArgsConstructor
+public class MicrometerDynamoMetrics implements DynamoMetrics
+{
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+
+    @Override
+    public void request(
+        @NonNull Operation operation,
+        @NonNull String tableName,
+        @Nullable String indexName,
+        @NonNull Duration latency,
+        @Nullable Throwable error)
+    {
+        Timer.builder("ddb.requests")
+            .tags(tags(operation, tableName, indexName))
+            .tag("outcome", null == error ? "success" : "error")
+            .tag("exception", Optional.ofNullable(error).map(it -> it.getClass().getSimpleName()).orElse(NONE))
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(latency);
+    }
+
+    @Override
+    public void items(@NonNull Operation operation, @NonNull String tableName, @Nullable String indexName, int count)
+    {
+        DistributionSummary.builder("ddb.items")
+            .tags(tags(operation, tableName, indexName))
+            .register(registry)
+            .record(count);
+    }
+
+    @Override
+    public void consumed(@NonNull Operation operation, @NonNull ConsumedCapacity consumedCapacity)
+    {
+        Optional.ofNullable(consumedCapacity.capacityUnits())
+            .ifPresent(units -> Counter.builder("ddb.consumed.capacity")
+                .tags(tags(operation, consumedCapacity.tableName(), null))
+                .register(registry)
+                .increment(units));
+    }
+
+    @Override
+    public void throttled(@NonNull Operation operation, @NonNull String tableName, int count)
+    {
+        Counter.builder("ddb.throttled")
+            .tags(tags(operation, tableName, null))
+            .register(registry)
+            .increment(count);
+    }
+
+    private static Tags tags(Operation operation, String tableName, String indexName)
+    {
+        return Tags.of("table", tableName,
+                       "index", Optional.ofNullable(indexName).orElse(NONE),
+                       "operation", operation.name());
+    }
+}
@@ -0,0 +1,37 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Value;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One bounded page of search results, together with the key where the next page starts.
+ */
+@Value
+public class Page<T>
+{
+    List<T> items;
+    Map<String, AttributeValue> lastEvaluatedKey;
+
+    /**
+     * Opaque, url-safe cursor of the next page, or null when this is the last page.
+     */
+    public String getCursor()
+    {
+        return PageCursor.encode(lastEvaluatedKey);
+    }
+
+    public boolean hasNext()
+    {
+        return null != lastEvaluatedKey && !lastEvaluatedKey.isEmpty();
+    }
+
+    public <R> Page<R> map(Function<? super T, ? extends R> mapper)
+    {
+        return new Page<>(items.stream().map(mapper).collect(Collectors.toList()), lastEvaluatedKey);
+    }
+}
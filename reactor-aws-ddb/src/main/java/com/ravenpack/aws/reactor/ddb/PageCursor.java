@@ -0,0 +1,100 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serialises a LastEvaluatedKey into an opaque string and back. Key attributes are always of type S, N or B.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor
+{
+    private static final byte STRING = 'S';
+    private static final byte NUMBER = 'N';
+    private static final byte BINARY = 'B';
+
+    @SneakyThrows(IOException.class)
+    public static String encode(Map<String, AttributeValue> key)
+    {
+        if (null == key || key.isEmpty()) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(key.size());
+        for (Map.Entry<String, AttributeValue> e : key.entrySet()) {
+            AttributeValue value = e.getValue();
+            out.writeUTF(e.getKey());
+            if (null != value.s()) {
+                out.writeByte(STRING);
+                out.writeUTF(value.s());
+            } else if (null != value.n()) {
+                out.writeByte(NUMBER);
+                out.writeUTF(value.n());
+            } else if (null != value.b()) {
+                out.writeByte(BINARY);
+                byte[] binary = value.b().asByteArray();
+                out.writeInt(binary.length);
+                out.write(binary);
+            } else {
+                throw new IllegalArgumentException("Not a key attribute: " + e.getKey() + "=" + value);
+            }
+        }
+        out.flush();
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static Map<String, AttributeValue> decode(String cursor)
+    {
+        if (null == cursor || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)));
+            int size = readLength(in);
+            Map<String, AttributeValue> key = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                String name = in.readUTF();
+                byte type = in.readByte();
+                if (STRING == type) {
+                    key.put(name, AttributeValue.builder().s(in.readUTF()).build());
+                } else if (NUMBER == type) {
+                    key.put(name, AttributeValue.builder().n(in.readUTF()).build());
+                } else if (BINARY == type) {
+                    byte[] binary = new byte[readLength(in)];
+                    in.readFully(binary);
+                    key.put(name, AttributeValue.builder().b(SdkBytes.fromByteArray(binary)).build());
+                } else {
+                    throw new IOException("unknown attribute type: " + type);
+                }
+            }
+            return key;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+
+    private static int readLength(DataInputStream in) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("invalid length: " + length);
+        }
+        return length;
+    }
+}
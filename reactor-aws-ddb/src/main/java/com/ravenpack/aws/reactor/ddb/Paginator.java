@@ -0,0 +1,118 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Reads the pages of a scan or query only while the subscriber has demand for their items. The first page asks
+ * for {@value #FIRST_PAGE_LIMIT} items, or for the requested amount when that is bounded and bigger, and every
+ * following page for twice as many as the one before, until pages grow past {@value #MAX_PAGE_LIMIT} items and
+ * are left to the 1 MB DynamoDB cap. A subscriber that takes a few items pays for a small page only, and long
+ * reads quickly get to full pages.
+ * <p>
+ * No page is requested after the subscriber cancels, and the one in flight is cancelled.
+ */
+class Paginator<T>
+{
+    static final int FIRST_PAGE_LIMIT = 16;
+    static final int MAX_PAGE_LIMIT = 1024;
+
+    private final FluxSink<T> sink;
+    private final BiFunction<Integer, Map<String, AttributeValue>, Mono<Page<T>>> readPage;
+    private Map<String, AttributeValue> startKey;
+    private long limit = FIRST_PAGE_LIMIT;
+    private long pages;
+    private boolean reading;
+    private boolean done;
+    private Disposable inFlight;
+
+    private Paginator(FluxSink<T> sink, BiFunction<Integer, Map<String, AttributeValue>, Mono<Page<T>>> readPage)
+    {
+        this.sink = sink;
+        this.readPage = readPage;
+    }
+
+    /**
+     * @param readPage reads one page with the given limit, null for none, starting at the given key, null for the
+     *                 first page
+     */
+    static <T> Flux<T> items(BiFunction<Integer, Map<String, AttributeValue>, Mono<Page<T>>> readPage)
+    {
+        return Flux.create(sink -> {
+            Paginator<T> paginator = new Paginator<>(sink, readPage);
+            sink.onDispose(paginator::cancel);
+            sink.onRequest(it -> paginator.readNext());
+        });
+    }
+
+    private void readNext()
+    {
+        Mono<Page<T>> page;
+        long current;
+        synchronized (this) {
+            long demand = sink.requestedFromDownstream();
+            if (reading || done || demand == 0) {
+                return;
+            }
+            reading = true;
+            long pageLimit = Math.max(limit, demand == Long.MAX_VALUE ? 0 : demand);
+            page = readPage.apply(pageLimit > MAX_PAGE_LIMIT ? null : (int) pageLimit, startKey);
+            limit = Math.min(pageLimit, MAX_PAGE_LIMIT + 1L) * 2;
+            current = ++pages;
+        }
+        Disposable subscription = page.subscribe(this::onPage, this::onError);
+        boolean cancelled;
+        synchronized (this) {
+            cancelled = reading && done && current == pages;
+            if (reading && !done && current == pages) {
+                inFlight = subscription;
+            }
+        }
+        if (cancelled) {
+            subscription.dispose();
+        }
+    }
+
+    private void onPage(Page<T> page)
+    {
+        page.getItems().forEach(sink::next);
+        synchronized (this) {
+            reading = false;
+            inFlight = null;
+            startKey = page.getLastEvaluatedKey();
+            done = done || !page.hasNext();
+        }
+        if (page.hasNext()) {
+            readNext();
+        } else {
+            sink.complete();
+        }
+    }
+
+    private void onError(Throwable e)
+    {
+        synchronized (this) {
+            done = true;
+        }
+        sink.error(e);
+    }
+
+    private void cancel()
+    {
+        Disposable subscription;
+        synchronized (this) {
+            done = true;
+            subscription = inFlight;
+            inFlight = null;
+        }
+        if (null != subscription) {
+            subscription.dispose();
+        }
+    }
+}
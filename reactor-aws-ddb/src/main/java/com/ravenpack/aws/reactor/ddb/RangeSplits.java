@@ -0,0 +1,64 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Split points of the range key for {@link RxDynamo#parallelQuery(DynamoSearch, String, List, int)}:
+ * <pre>
+ * rxDynamo.parallelQuery(search, "timestamp", RangeSplits.timestamps(from, to, 8), 4)
+ * </pre>
+ * Evenly spaced points only split evenly when the items are evenly spread over the range.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RangeSplits
+{
+    /**
+     * The {@code parts - 1} numbers splitting {@code [from, to]} into equally wide parts.
+     */
+    public static List<AttributeValue> numbers(BigDecimal from, BigDecimal to, int parts)
+    {
+        BigDecimal width = to.subtract(from).divide(BigDecimal.valueOf(parts), MathContext.DECIMAL64);
+
+        return IntStream.range(1, parts)
+            .mapToObj(i -> from.add(width.multiply(BigDecimal.valueOf(i))))
+            .map(it -> AttributeValue.builder().n(it.toPlainString()).build())
+            .collect(Collectors.toList());
+    }
+
+    public static List<AttributeValue> numbers(long from, long to, int parts)
+    {
+        return numbers(BigDecimal.valueOf(from), BigDecimal.valueOf(to), parts);
+    }
+
+    /**
+     * The {@code parts - 1} instants splitting {@code [from, to]} into equally long parts, as ISO-8601 strings
+     * like the ones of {@link Instant#toString()}.
+     */
+    public static List<AttributeValue> timestamps(Instant from, Instant to, int parts)
+    {
+        Duration length = Duration.between(from, to).dividedBy(parts);
+
+        return IntStream.range(1, parts)
+            .mapToObj(i -> from.plus(length.multipliedBy(i)))
+            .map(it -> AttributeValue.builder().s(it.toString()).build())
+            .collect(Collectors.toList());
+    }
+
+    public static List<AttributeValue> strings(String... points)
+    {
+        return Arrays.stream(points)
+            .map(it -> AttributeValue.builder().s(it).build())
+            .collect(Collectors.toList());
+    }
+}
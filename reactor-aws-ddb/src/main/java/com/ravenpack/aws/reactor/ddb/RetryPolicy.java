@@ -0,0 +1,168 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Builder;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which failed requests {@link RxDynamoImpl} sends again and when:
+ * <pre>
+ * RxDynamo rxDynamo = new RxDynamoImpl(client)
+ *     .withRetryPolicy(RetryPolicy.builder()
+ *                          .maxRetries(5)
+ *                          .circuitOpenFor(Duration.ofSeconds(2))
+ *                          .build());
+ * </pre>
+ * Throttled requests and server errors are retried after a decorrelated jitter backoff, as long as the retry
+ * budget allows it: every request adds {@code retryRatio} of a retry to the budget, so retries can not outgrow
+ * that fraction of the traffic while a table is struggling. The same backoff spaces out the re-submission of
+ * items a batch left unprocessed.
+ * <p>
+ * Once {@code circuitThreshold} requests to a table are throttled in a row its circuit opens, and requests to
+ * that table fail with {@link CircuitOpenException} without being sent, until {@code circuitOpenFor} elapses.
+ * <p>
+ * {@link RxDynamoImpl} does not retry unless a policy is set with {@code withRetryPolicy}, leaving retries to the
+ * SDK client. The client should then be built with the SDK retries disabled, otherwise every retry here multiplies
+ * those.
+ * A policy keeps the state of the budget and circuits, so it should not be shared by clients of different
+ * accounts.
+ */
+public class RetryPolicy
+{
+    public static final RetryPolicy NONE = RetryPolicy.builder().maxRetries(0).circuitThreshold(0).build();
+
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final Duration DEFAULT_BASE_BACKOFF = Duration.ofMillis(50);
+    private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(10);
+    private static final double DEFAULT_RETRY_RATIO = 0.2;
+    private static final int DEFAULT_CIRCUIT_THRESHOLD = 20;
+    private static final Duration DEFAULT_CIRCUIT_OPEN_FOR = Duration.ofSeconds(1);
+    private static final double MAX_RETRY_BUDGET = 100;
+
+    private final int maxRetries;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final double retryRatio;
+    private final int circuitThreshold;
+    private final Duration circuitOpenFor;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private double retryBudget = MAX_RETRY_BUDGET;
+
+    /**
+     * @param maxRetries       times a request is sent again, 3 when null
+     * @param baseBackoff      shortest wait before a retry, 50ms when null
+     * @param maxBackoff       longest wait before a retry, 10s when null, not shorter than baseBackoff
+     * @param retryRatio       retries allowed per request, 0.2 when null
+     * @param circuitThreshold throttled requests in a row that open the circuit of a table, 20 when null, 0 to
+     *                         never open it
+     * @param circuitOpenFor   how long an open circuit rejects requests, 1s when null
+     */
+    @Builder
+    private RetryPolicy(
+        Integer maxRetries,
+        Duration baseBackoff,
+        Duration maxBackoff,
+        Double retryRatio,
+        Integer circuitThreshold,
+        Duration circuitOpenFor)
+    {
+        this.maxRetries = Optional.ofNullable(maxRetries).orElse(DEFAULT_MAX_RETRIES);
+        this.baseBackoff = Optional.ofNullable(baseBackoff).orElse(DEFAULT_BASE_BACKOFF);
+        this.maxBackoff = Optional.ofNullable(maxBackoff).orElse(DEFAULT_MAX_BACKOFF);
+        this.retryRatio = Optional.ofNullable(retryRatio).orElse(DEFAULT_RETRY_RATIO);
+        this.circuitThreshold = Optional.ofNullable(circuitThreshold).orElse(DEFAULT_CIRCUIT_THRESHOLD);
+        this.circuitOpenFor = Optional.ofNullable(circuitOpenFor).orElse(DEFAULT_CIRCUIT_OPEN_FOR);
+
+        if (this.baseBackoff.isNegative() || this.maxBackoff.compareTo(this.baseBackoff) < 0) {
+            throw new IllegalArgumentException("Backoff must be between a non negative baseBackoff and maxBackoff, got "
+                                                   + this.baseBackoff + " and " + this.maxBackoff);
+        }
+    }
+
+    static boolean isThrottling(Throwable e)
+    {
+        return e instanceof ProvisionedThroughputExceededException
+            || e instanceof RequestLimitExceededException
+            || (e instanceof SdkServiceException && ((SdkServiceException) e).isThrottlingException());
+    }
+
+    static boolean isRetryable(Throwable e)
+    {
+        return isThrottling(e) || (e instanceof SdkServiceException && ((SdkServiceException) e).statusCode() >= 500);
+    }
+
+    /**
+     * Sends the request, and again while it fails with a retryable error and the retries and budget last.
+     * Without retries nor circuits, as with {@link #NONE}, the request is sent as is.
+     */
+    <R> Mono<R> execute(Collection<String> tableNames, Mono<R> request)
+    {
+        if (0 == maxRetries && 0 == circuitThreshold) {
+            return request;
+        }
+        return Mono.defer(() -> {
+            if (maxRetries > 0) {
+                deposit();
+            }
+            return execute(tableNames, request, 0, Duration.ZERO);
+        });
+    }
+
+    private <R> Mono<R> execute(Collection<String> tableNames, Mono<R> request, int retries, Duration backoff)
+    {
+        return Mono.defer(() -> tableNames.stream()
+                .filter(it -> circuit(it).isOpen())
+                .findFirst()
+                .map(it -> Mono.<R>error(new CircuitOpenException(it)))
+                .orElse(request))
+            .doOnSuccess(it -> tableNames.forEach(table -> circuit(table).succeeded()))
+            .onErrorResume(e -> {
+                if (isThrottling(e)) {
+                    tableNames.forEach(table -> circuit(table).throttled());
+                }
+                return Optional.of(e)
+                    .filter(it -> retries < maxRetries && isRetryable(it) && withdraw())
+                    .map(it -> backoff(backoff))
+                    .map(next -> Mono.delay(next).then(execute(tableNames, request, retries + 1, next)))
+                    .orElseGet(() -> Mono.error(e));
+            });
+    }
+
+    /**
+     * Decorrelated jitter: a random wait between the base backoff and three times the previous one.
+     */
+    Duration backoff(Duration previous)
+    {
+        long base = baseBackoff.toMillis();
+        long ceiling = Math.min(maxBackoff.toMillis(), Math.max(base, previous.toMillis() * 3));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(base, ceiling + 1));
+    }
+
+    private synchronized void deposit()
+    {
+        retryBudget = Math.min(MAX_RETRY_BUDGET, retryBudget + retryRatio);
+    }
+
+    private synchronized boolean withdraw()
+    {
+        if (retryBudget < 1) {
+            return false;
+        }
+        retryBudget -= 1;
+        return true;
+    }
+
+    private Circuit circuit(String tableName)
+    {
+        return circuits.computeIfAbsent(tableName, it -> new Circuit(circuitThreshold, circuitOpenFor));
+    }
+}
@@ -9,19 +9,127 @@ import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public interface RxDynamo
 {
     Flux<Map<String, AttributeValue>> scan(@NonNull DynamoSearch dynamoSearch);
 
+    /**
+     * Scans the table in {@code totalSegments} segments, running up to {@code maxConcurrency} of them
+     * at the same time. Items of all segments are merged into a single flux, in no particular order.
+     */
+    Flux<Map<String, AttributeValue>> parallelScan(
+        @NonNull DynamoSearch dynamoSearch,
+        int totalSegments,
+        int maxConcurrency);
+
+    /**
+     * Queries by the key conditions, or scans when there are none. A key condition IN a list of values, which
+     * DynamoDB can not query, is run as one query per value, a few of them at the same time, and their items are
+     * merged in no particular order.
+     */
     Flux<Map<String, AttributeValue>> search(@NonNull DynamoSearch dynamoSearch);
 
+    /**
+     * Like {@link #search(DynamoSearch)}, but the queries of a key condition IN a list of values are all run at
+     * once and merged by {@code rangeKeyAttribute}, so items come sorted by it across all of the values.
+     */
+    Flux<Map<String, AttributeValue>> searchOrdered(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute);
+
+    /**
+     * Queries a single hash key as consecutive sub-ranges of the range key, split at {@code splitPoints} (see
+     * {@link RangeSplits}), with up to {@code maxConcurrency} of them at the same time. Items come in the order of
+     * the range key, as from {@link #search(DynamoSearch)}. A range key condition of the search bounds the
+     * sub-ranges; searches which can not be split, like the ones with an EQ range key condition, are run as is.
+     * A hash key condition with many values, like IN, is split per value and merged by {@code rangeKeyAttribute}.
+     */
+    Flux<Map<String, AttributeValue>> parallelQuery(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute,
+        @NonNull List<AttributeValue> splitPoints,
+        int maxConcurrency);
+
+    /**
+     * Reads a single page of at most {@code limit} items, starting after {@code cursor}, or from the beginning
+     * when the cursor is null. The cursor of the following page is carried by the returned {@link Page}.
+     * A key condition with many values, like IN, is read one value after the other.
+     */
+    Mono<Page<Map<String, AttributeValue>>> searchPage(@NonNull DynamoSearch dynamoSearch, String cursor, int limit);
+
+    /**
+     * Reads pages of at most {@code pageSize} items. A page is read only when the subscriber requests it.
+     */
+    Flux<Page<Map<String, AttributeValue>>> searchPages(@NonNull DynamoSearch dynamoSearch, int pageSize);
+
+    /**
+     * Counts the items matching the search on the server side (Select COUNT), without transferring any of them.
+     * It still reads, and consumes capacity for, every item the search would have read.
+     */
+    Mono<Long> count(@NonNull DynamoSearch dynamoSearch);
+
+    /**
+     * Counts the items of a table or index matching the filters, scanning it in {@code totalSegments} segments
+     * with up to {@code maxConcurrency} of them at the same time. Key conditions are ignored.
+     */
+    Mono<Long> parallelCount(@NonNull DynamoSearch dynamoSearch, int totalSegments, int maxConcurrency);
+
+    /**
+     * Whether any item matches the search. Pages are counted like in {@link #count(DynamoSearch)}, and no more
+     * of them are read after the first one with a match.
+     */
+    Mono<Boolean> exists(@NonNull DynamoSearch dynamoSearch);
+
+    /**
+     * Reads a single item by primary key, or completes empty when there is no such item. Concurrent calls with
+     * an equal request share the same DynamoDB call.
+     */
+    Mono<Map<String, AttributeValue>> get(@NonNull GetItemRequest getItemRequest);
+
+    /**
+     * Looks up items of {@code tableName} by primary key. Keys are sent in BatchGetItem requests of up to 100
+     * keys, a few requests in flight at once. Keys left unprocessed (because of throttling or the 16 MB response
+     * limit) are re-submitted with a jittered backoff. Items come back in no particular order, keys without
+     * an item are skipped.
+     */
+    Function<Flux<Map<String, AttributeValue>>, Flux<Map<String, AttributeValue>>> batchGet(
+        @NonNull String tableName);
+
+    /**
+     * Writes put and delete requests to {@code tableName} in BatchWriteItem requests of up to 25 items, a few
+     * requests in flight at once. Unprocessed items are re-submitted with a jittered backoff until they succeed.
+     * Every request is emitted once DynamoDB has processed it. A single batch must not contain two requests
+     * for the same key.
+     */
+    Function<Flux<WriteRequest>, Flux<WriteRequest>> batchWrite(@NonNull String tableName);
+
+    /**
+     * Writes the items in TransactWriteItems requests of up to 100 items, a few of them in flight at once.
+     * Each request is atomic on its own, so items that must succeed or fail together have to be among the
+     * first 100, or in a call of their own. A cancelled transaction fails with {@link TransactionFailedException}.
+     */
+    Mono<Void> transactWrite(@NonNull List<TransactWriteItem> items);
+
+    /**
+     * Reads the items in TransactGetItems requests of up to 100 items. Items come back in the order of the
+     * requests, a missing item as an empty map. A cancelled transaction fails with
+     * {@link TransactionFailedException}.
+     */
+    Mono<List<Map<String, AttributeValue>>> transactGet(@NonNull List<TransactGetItem> items);
+
     Mono<PutItemResponse> save(PutItemRequest putItemRequest);
 
     Mono<UpdateItemResponse> update(UpdateItemRequest updateItemRequest);
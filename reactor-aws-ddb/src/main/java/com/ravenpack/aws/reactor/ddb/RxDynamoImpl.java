@@ -1,64 +1,252 @@
 package com.ravenpack.aws.reactor.ddb;
 
+import com.ravenpack.aws.reactor.ddb.DynamoMetrics.Operation;
+import com.ravenpack.aws.reactor.ddb.ExpressionCompiler.SearchExpressions;
 import lombok.AllArgsConstructor;
+import lombok.With;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
 import reactor.util.annotation.NonNull;
+import reactor.util.concurrent.Queues;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
 import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
 import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
 import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.Put;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
 import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
 import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @AllArgsConstructor
 public class RxDynamoImpl implements RxDynamo
 {
 
+    private static final int MAX_BATCH_GET_SIZE = 100;
+    private static final int MAX_BATCH_WRITE_SIZE = 25;
+    private static final int MAX_BATCHES_IN_FLIGHT = 4;
+    private static final int MAX_TRANSACTION_SIZE = 100;
+    private static final int MAX_TRANSACTIONS_IN_FLIGHT = 4;
+    static final int MAX_QUERIES_IN_FLIGHT = 8;
+    private static final Duration MAX_BATCH_WAIT = Duration.ofMillis(10);
+    private static final ExpressionCompiler EXPRESSIONS = new ExpressionCompiler();
+    /**
+     * Attribute of the LastEvaluatedKey of a fanned out page holding which of the searches to resume. Attribute
+     * names can not be empty, so it never clashes with a key attribute.
+     */
+    private static final String FAN_OUT_POSITION = "";
+
     private final DynamoDbAsyncClient ddbClient;
 
+    @With
+    private final CapacityLimiter capacityLimiter;
+
+    @With
+    private final DynamoMetrics metrics;
+
+    @With
+    private final RetryPolicy retryPolicy;
+
+    private final Map<GetItemRequest, Mono<Map<String, AttributeValue>>> getsInFlight = new ConcurrentHashMap<>();
+
+    public RxDynamoImpl(DynamoDbAsyncClient ddbClient)
+    {
+        this(ddbClient, CapacityLimiter.UNLIMITED, DynamoMetrics.NOOP, RetryPolicy.NONE);
+    }
+
     @Override
     public Flux<Map<String, AttributeValue>> scan(@NonNull DynamoSearch dynamoSearch)
     {
+        return executeScan(scanRequest(dynamoSearch).build());
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelScan(
+        @NonNull DynamoSearch dynamoSearch,
+        int totalSegments,
+        int maxConcurrency)
+    {
+        log.debug("starting parallel scan in {} segments with: {}", totalSegments, dynamoSearch);
+
+        return Flux.range(0, totalSegments)
+            .map(segment -> scanRequest(dynamoSearch)
+                .segment(segment)
+                .totalSegments(totalSegments)
+                .build())
+            .flatMap(this::executeScan, maxConcurrency);
+    }
+
+    /**
+     * Without a limit of its own, pages are sized by the demand of the subscriber, see {@link Paginator}.
+     */
+    private Flux<Map<String, AttributeValue>> executeScan(ScanRequest scanRequest)
+    {
+        return Optional.ofNullable(scanRequest.limit())
+            .map(it -> scanPages(scanRequest).flatMapIterable(ScanResponse::items, 1))
+            .orElseGet(() -> Paginator.items((limit, startKey) -> {
+                ScanRequest.Builder page = scanRequest.toBuilder().limit(limit);
+                Optional.ofNullable(startKey).ifPresent(page::exclusiveStartKey);
+                return scanPage(page.build()).map(it -> new Page<>(it.items(), it.lastEvaluatedKey()));
+            }));
+    }
+
+    private Flux<ScanResponse> scanPages(ScanRequest scanRequest)
+    {
+        return scanPage(scanRequest)
+            .expand(response -> Optional.of(response.lastEvaluatedKey())
+                .filter(it -> !it.isEmpty())
+                .map(it -> scanPage(scanRequest.toBuilder().exclusiveStartKey(it).build()))
+                .orElseGet(Mono::empty));
+    }
+
+    private Mono<ScanResponse> scanPage(ScanRequest scanRequest)
+    {
+        return execute(Operation.SCAN, scanRequest.tableName(), scanRequest.indexName(), scanRequest, ddbClient::scan,
+                       it -> capacityOf(it.consumedCapacity()))
+            .doOnNext(it -> metrics.items(Operation.SCAN, scanRequest.tableName(), scanRequest.indexName(),
+                                          it.items().size()));
+    }
+
+    private ScanRequest.Builder scanRequest(DynamoSearch dynamoSearch)
+    {
+        SearchExpressions expressions = EXPRESSIONS.compile(dynamoSearch.withKeyConditions(Collections.emptyMap()));
+
         ScanRequest.Builder scanRequest = ScanRequest.builder()
             .tableName(dynamoSearch.getTableName())
-            .scanFilter(dynamoSearch.getFilterConditions())
-            .expressionAttributeValues(dynamoSearch.getExpressionAttributeValues());
+            .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
         Optional.ofNullable(dynamoSearch.getIndexName()).ifPresent(scanRequest::indexName);
+        Optional.ofNullable(expressions.getFilterExpression()).ifPresent(scanRequest::filterExpression);
+        Optional.ofNullable(expressions.getProjectionExpression()).ifPresent(scanRequest::projectionExpression);
+        Optional.of(expressions.getNames()).filter(it -> !it.isEmpty())
+            .ifPresent(scanRequest::expressionAttributeNames);
+        Optional.of(expressions.getValues()).filter(it -> !it.isEmpty())
+            .ifPresent(scanRequest::expressionAttributeValues);
+        Optional.ofNullable(dynamoSearch.getLimit()).ifPresent(scanRequest::limit);
+        Optional.ofNullable(dynamoSearch.getExclusiveStartKey()).ifPresent(scanRequest::exclusiveStartKey);
 
-        return Flux.from(ddbClient.scanPaginator(scanRequest.build()))
-            .flatMapIterable(ScanResponse::items);
+        return scanRequest;
     }
 
-    private Flux<Map<String, AttributeValue>> query(@NonNull DynamoSearch dynamoSearch)
+    private QueryRequest queryRequest(DynamoSearch dynamoSearch)
     {
+        SearchExpressions expressions = EXPRESSIONS.compile(dynamoSearch);
+
         QueryRequest.Builder queryRequest = QueryRequest.builder()
             .tableName(dynamoSearch.getTableName())
-            .keyConditions(dynamoSearch.getKeyConditions())
-            .queryFilter(dynamoSearch.getFilterConditions())
-            .expressionAttributeValues(dynamoSearch.getExpressionAttributeValues());
+            .keyConditionExpression(expressions.getKeyConditionExpression())
+            .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
 
         Optional.ofNullable(dynamoSearch.getIndexName()).ifPresent(queryRequest::indexName);
+        Optional.ofNullable(expressions.getFilterExpression()).ifPresent(queryRequest::filterExpression);
+        Optional.ofNullable(expressions.getProjectionExpression()).ifPresent(queryRequest::projectionExpression);
+        Optional.of(expressions.getNames()).filter(it -> !it.isEmpty())
+            .ifPresent(queryRequest::expressionAttributeNames);
+        Optional.of(expressions.getValues()).filter(it -> !it.isEmpty())
+            .ifPresent(queryRequest::expressionAttributeValues);
+        Optional.ofNullable(dynamoSearch.getLimit()).ifPresent(queryRequest::limit);
+        Optional.ofNullable(dynamoSearch.getExclusiveStartKey()).ifPresent(queryRequest::exclusiveStartKey);
+
+        return queryRequest.build();
+    }
+
+    /**
+     * Without a limit of its own, pages are sized by the demand of the subscriber, see {@link Paginator}.
+     */
+    private Flux<Map<String, AttributeValue>> query(@NonNull DynamoSearch dynamoSearch)
+    {
+        return query(dynamoSearch, ConcurrencyLimit.UNLIMITED);
+    }
 
-        return Flux.from(ddbClient.queryPaginator(queryRequest.build()))
-            .flatMapIterable(QueryResponse::items);
+    /**
+     * Every page is read within the {@code concurrencyLimit}, shared by the queries of one search.
+     */
+    private Flux<Map<String, AttributeValue>> query(DynamoSearch dynamoSearch, ConcurrencyLimit concurrencyLimit)
+    {
+        QueryRequest queryRequest = queryRequest(dynamoSearch);
+
+        return Optional.ofNullable(queryRequest.limit())
+            .map(it -> queryPages(queryRequest, concurrencyLimit).flatMapIterable(QueryResponse::items, 1))
+            .orElseGet(() -> Paginator.items((limit, startKey) -> {
+                QueryRequest.Builder page = queryRequest.toBuilder().limit(limit);
+                Optional.ofNullable(startKey).ifPresent(page::exclusiveStartKey);
+                return concurrencyLimit.run(queryPage(page.build()))
+                    .map(it -> new Page<>(it.items(), it.lastEvaluatedKey()));
+            }));
+    }
+
+    private Flux<QueryResponse> queryPages(QueryRequest queryRequest)
+    {
+        return queryPages(queryRequest, ConcurrencyLimit.UNLIMITED);
+    }
+
+    private Flux<QueryResponse> queryPages(QueryRequest queryRequest, ConcurrencyLimit concurrencyLimit)
+    {
+        return concurrencyLimit.run(queryPage(queryRequest))
+            .expand(response -> Optional.of(response.lastEvaluatedKey())
+                .filter(it -> !it.isEmpty())
+                .map(it -> concurrencyLimit.run(queryPage(queryRequest.toBuilder().exclusiveStartKey(it).build())))
+                .orElseGet(Mono::empty));
+    }
+
+    private Mono<QueryResponse> queryPage(QueryRequest queryRequest)
+    {
+        return execute(Operation.QUERY, queryRequest.tableName(), queryRequest.indexName(), queryRequest,
+                       ddbClient::query, it -> capacityOf(it.consumedCapacity()))
+            .doOnNext(it -> metrics.items(Operation.QUERY, queryRequest.tableName(), queryRequest.indexName(),
+                                          it.items().size()));
     }
 
     @Override
@@ -66,12 +254,484 @@ public class RxDynamoImpl implements RxDynamo
     {
         log.debug("starting query with: {}", dynamoSearch);
 
+        return fanOut(dynamoSearch)
+            .map(searches -> Flux.fromIterable(searches).flatMap(this::search, MAX_QUERIES_IN_FLIGHT))
+            .orElseGet(() -> Optional.of(dynamoSearch)
+                .map(DynamoSearch::getKeyConditions)
+                .filter(it -> !it.isEmpty())
+                .map(it -> dynamoSearch)
+                .map(this::query)
+                .orElseGet(() -> this.scan(dynamoSearch)));
+    }
+
+    /**
+     * The merge waits for the first item of every fanned out search, but at most {@link #MAX_QUERIES_IN_FLIGHT}
+     * of their pages are read at the same time.
+     */
+    @Override
+    public Flux<Map<String, AttributeValue>> searchOrdered(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute)
+    {
+        return Flux.defer(() -> searchOrdered(dynamoSearch, rangeKeyAttribute,
+                                              new ConcurrencyLimit(MAX_QUERIES_IN_FLIGHT)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Flux<Map<String, AttributeValue>> searchOrdered(
+        DynamoSearch dynamoSearch,
+        String rangeKeyAttribute,
+        ConcurrencyLimit concurrencyLimit)
+    {
+        DynamoSearch withRangeKey = withAttribute(dynamoSearch, rangeKeyAttribute);
+
+        return fanOut(withRangeKey)
+            .map(searches -> Flux.mergeOrdered(byAttribute(rangeKeyAttribute), searches.stream()
+                .map(it -> searchOrdered(it, rangeKeyAttribute, concurrencyLimit))
+                .toArray(Flux[]::new)))
+            .orElseGet(() -> Optional.of(withRangeKey)
+                .filter(it -> !it.getKeyConditions().isEmpty())
+                .map(it -> query(it, concurrencyLimit))
+                .orElseGet(() -> scan(withRangeKey)));
+    }
+
+    /**
+     * Fanned out searches are each split and then merged by the range key. The pages of all of them share the
+     * {@code maxConcurrency}, so no more pages than that are read at the same time.
+     */
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelQuery(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute,
+        @NonNull List<AttributeValue> splitPoints,
+        int maxConcurrency)
+    {
+        log.debug("starting parallel query split at {} with: {}", splitPoints, dynamoSearch);
+
+        return Flux.defer(() -> parallelQuery(dynamoSearch, rangeKeyAttribute, splitPoints, maxConcurrency,
+                                              fanOut(dynamoSearch).isPresent()
+                                                  ? new ConcurrencyLimit(maxConcurrency)
+                                                  : ConcurrencyLimit.UNLIMITED));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Flux<Map<String, AttributeValue>> parallelQuery(
+        DynamoSearch dynamoSearch,
+        String rangeKeyAttribute,
+        List<AttributeValue> splitPoints,
+        int maxConcurrency,
+        ConcurrencyLimit concurrencyLimit)
+    {
+        DynamoSearch withRangeKey = withAttribute(dynamoSearch, rangeKeyAttribute);
+
+        return fanOut(withRangeKey)
+            .map(searches -> Flux.mergeOrdered(byAttribute(rangeKeyAttribute), searches.stream()
+                .map(it -> parallelQuery(it, rangeKeyAttribute, splitPoints, maxConcurrency, concurrencyLimit))
+                .toArray(Flux[]::new)))
+            .orElseGet(() -> Optional.of(withRangeKey)
+                .filter(it -> !it.getKeyConditions().isEmpty())
+                .map(it -> KeyRange.of(it.getKeyConditions().get(rangeKeyAttribute))
+                    .map(range -> Flux.mergeSequential(
+                        Flux.fromIterable(range.split(splitPoints))
+                            .map(split -> query(withKeyRange(withRangeKey, rangeKeyAttribute, split), concurrencyLimit)
+                                .filter(item -> split.contains(item.get(rangeKeyAttribute)))),
+                        maxConcurrency, Queues.XS_BUFFER_SIZE))
+                    .orElseGet(() -> query(withRangeKey, concurrencyLimit)))
+                .orElseGet(() -> scan(withRangeKey)));
+    }
+
+    private static Comparator<Map<String, AttributeValue>> byAttribute(String attributeName)
+    {
+        return Comparator.comparing(it -> it.get(attributeName), Comparator.nullsFirst(new AttributeValueComparator()));
+    }
+
+    private static DynamoSearch withKeyRange(DynamoSearch dynamoSearch, String rangeKeyAttribute, KeyRange range)
+    {
+        Map<String, Condition> keyConditions = new HashMap<>(dynamoSearch.getKeyConditions());
+        keyConditions.remove(rangeKeyAttribute);
+        range.condition().ifPresent(it -> keyConditions.put(rangeKeyAttribute, it));
+
+        return dynamoSearch.withKeyConditions(keyConditions);
+    }
+
+    /**
+     * Makes sure a projection includes the attribute, as the items are ordered by it.
+     */
+    private static DynamoSearch withAttribute(DynamoSearch dynamoSearch, String attributeName)
+    {
+        return Optional.ofNullable(dynamoSearch.getAttributeNames())
+            .filter(it -> !it.contains(attributeName))
+            .map(it -> {
+                List<String> attributeNames = new ArrayList<>(it);
+                attributeNames.add(attributeName);
+                return dynamoSearch.withAttributeNames(attributeNames);
+            })
+            .orElse(dynamoSearch);
+    }
+
+    /**
+     * Splits a search with a key condition IN a list of values into a search per value.
+     */
+    private static Optional<List<DynamoSearch>> fanOut(DynamoSearch dynamoSearch)
+    {
+        return dynamoSearch.getKeyConditions()
+            .entrySet()
+            .stream()
+            .filter(it -> ComparisonOperator.IN == it.getValue().comparisonOperator())
+            .findFirst()
+            .map(in -> in.getValue()
+                .attributeValueList()
+                .stream()
+                .distinct()
+                .map(value -> {
+                    Map<String, Condition> keyConditions = new HashMap<>(dynamoSearch.getKeyConditions());
+                    keyConditions.put(in.getKey(), Condition.builder()
+                        .comparisonOperator(ComparisonOperator.EQ)
+                        .attributeValueList(value)
+                        .build());
+                    return dynamoSearch.withKeyConditions(keyConditions);
+                })
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Mono<Long> count(@NonNull DynamoSearch dynamoSearch)
+    {
+        log.debug("starting count with: {}", dynamoSearch);
+
+        return counts(dynamoSearch).reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<Long> parallelCount(@NonNull DynamoSearch dynamoSearch, int totalSegments, int maxConcurrency)
+    {
+        log.debug("starting parallel count in {} segments with: {}", totalSegments, dynamoSearch);
+
+        return Flux.range(0, totalSegments)
+            .map(segment -> scanRequest(countable(dynamoSearch))
+                .select(Select.COUNT)
+                .segment(segment)
+                .totalSegments(totalSegments)
+                .build())
+            .flatMap(it -> scanPages(it).map(ScanResponse::count), maxConcurrency)
+            .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<Boolean> exists(@NonNull DynamoSearch dynamoSearch)
+    {
+        return counts(dynamoSearch).any(it -> it > 0);
+    }
+
+    /**
+     * Number of matching items of every page of the search, in order.
+     */
+    private Flux<Long> counts(DynamoSearch dynamoSearch)
+    {
+        DynamoSearch countable = countable(dynamoSearch);
+
+        return fanOut(countable)
+            .map(searches -> Flux.fromIterable(searches).flatMap(this::counts, MAX_QUERIES_IN_FLIGHT))
+            .orElseGet(() -> Optional.of(countable)
+                .map(DynamoSearch::getKeyConditions)
+                .filter(it -> !it.isEmpty())
+                .map(it -> queryPages(queryRequest(countable).toBuilder().select(Select.COUNT).build())
+                    .map(QueryResponse::count))
+                .orElseGet(() -> scanPages(scanRequest(countable).select(Select.COUNT).build())
+                    .map(ScanResponse::count))
+                .map(Integer::longValue));
+    }
+
+    /**
+     * Select COUNT can not be combined with a projection, and a limit would only make for more pages.
+     */
+    private static DynamoSearch countable(DynamoSearch dynamoSearch)
+    {
+        return dynamoSearch.withAttributeNames(null).withLimit(null);
+    }
+
+    @Override
+    public Mono<Page<Map<String, AttributeValue>>> searchPage(
+        @NonNull DynamoSearch dynamoSearch,
+        String cursor,
+        int limit)
+    {
+        log.debug("starting paged query from {} with: {}", cursor, dynamoSearch);
+
+        return page(dynamoSearch.withExclusiveStartKey(PageCursor.decode(cursor)), limit);
+    }
+
+    @Override
+    public Flux<Page<Map<String, AttributeValue>>> searchPages(@NonNull DynamoSearch dynamoSearch, int pageSize)
+    {
+        return page(dynamoSearch, pageSize)
+            .expand(page -> Optional.of(page)
+                .filter(Page::hasNext)
+                .map(it -> page(dynamoSearch.withExclusiveStartKey(it.getLastEvaluatedKey()), pageSize))
+                .orElseGet(Mono::empty));
+    }
+
+    /**
+     * A page of the search, or of its fanned out searches read one after the other.
+     */
+    private Mono<Page<Map<String, AttributeValue>>> page(DynamoSearch dynamoSearch, int limit)
+    {
+        return Mono.defer(() -> fanOut(dynamoSearch)
+            .map(searches -> {
+                Map<String, AttributeValue> startKey = new HashMap<>(
+                    Optional.ofNullable(dynamoSearch.getExclusiveStartKey()).orElse(Collections.emptyMap()));
+                int position = startKey.isEmpty() ? 0 : Optional.ofNullable(startKey.remove(FAN_OUT_POSITION))
+                    .map(it -> Integer.parseInt(it.n()))
+                    .filter(it -> it >= 0 && it < searches.size())
+                    .orElseThrow(() -> new IllegalArgumentException("Not a cursor of this search: " + startKey));
+
+                return fillPage(searches, position, startKey, limit, Collections.emptyList());
+            })
+            .orElseGet(() -> fillPage(dynamoSearch, limit, Collections.emptyList())));
+    }
+
+    /**
+     * Fills the page from the fanned out search at {@code position}, then from the following ones. The
+     * LastEvaluatedKey of the page holds the position of the search to resume, under {@link #FAN_OUT_POSITION}.
+     */
+    private Mono<Page<Map<String, AttributeValue>>> fillPage(
+        List<DynamoSearch> searches,
+        int position,
+        Map<String, AttributeValue> startKey,
+        int limit,
+        List<Map<String, AttributeValue>> collected)
+    {
+        DynamoSearch dynamoSearch = searches.get(position)
+            .withExclusiveStartKey(startKey.isEmpty() ? null : startKey);
+        if (fanOut(dynamoSearch).isPresent()) {
+            return Mono.error(new IllegalArgumentException(
+                "Paged searches can only have one key condition with many values: " + dynamoSearch));
+        }
+
+        return fillPage(dynamoSearch, limit, collected)
+            .flatMap(page -> {
+                boolean last = position + 1 == searches.size();
+                if (page.hasNext()) {
+                    return Mono.just(new Page<>(page.getItems(), withPosition(page.getLastEvaluatedKey(), position)));
+                }
+                if (last) {
+                    return Mono.just(page);
+                }
+                if (page.getItems().size() >= limit) {
+                    return Mono.just(new Page<>(page.getItems(),
+                                                withPosition(Collections.emptyMap(), position + 1)));
+                }
+                return fillPage(searches, position + 1, Collections.emptyMap(), limit, page.getItems());
+            });
+    }
+
+    private static Map<String, AttributeValue> withPosition(Map<String, AttributeValue> key, int position)
+    {
+        Map<String, AttributeValue> positioned = new HashMap<>(key);
+        positioned.put(FAN_OUT_POSITION, AttributeValue.builder().n(Integer.toString(position)).build());
+        return positioned;
+    }
+
+    /**
+     * Reads DynamoDB pages, asking each time only for the items still missing, until there are
+     * {@code limit} items or no more pages. Filters are applied after Limit, so a page may come back short.
+     */
+    private Mono<Page<Map<String, AttributeValue>>> fillPage(
+        DynamoSearch dynamoSearch,
+        int limit,
+        List<Map<String, AttributeValue>> collected)
+    {
+        return readPage(dynamoSearch.withLimit(limit - collected.size()))
+            .flatMap(page -> {
+                List<Map<String, AttributeValue>> items = new ArrayList<>(collected);
+                items.addAll(page.getItems());
+
+                return Optional.of(page)
+                    .filter(it -> it.hasNext() && items.size() < limit)
+                    .map(it -> fillPage(dynamoSearch.withExclusiveStartKey(it.getLastEvaluatedKey()), limit, items))
+                    .orElseGet(() -> Mono.just(new Page<>(items, page.getLastEvaluatedKey())));
+            });
+    }
+
+    private Mono<Page<Map<String, AttributeValue>>> readPage(DynamoSearch dynamoSearch)
+    {
         return Optional.of(dynamoSearch)
             .map(DynamoSearch::getKeyConditions)
             .filter(it -> !it.isEmpty())
-            .map(it -> dynamoSearch)
-            .map(this::query)
-            .orElseGet(() -> this.scan(dynamoSearch));
+            .map(it -> queryPage(queryRequest(dynamoSearch))
+                .map(response -> new Page<>(response.items(), response.lastEvaluatedKey())))
+            .orElseGet(() -> scanPage(scanRequest(dynamoSearch).build())
+                .map(response -> new Page<>(response.items(), response.lastEvaluatedKey())));
+    }
+
+    @Override
+    public Mono<Map<String, AttributeValue>> get(@NonNull GetItemRequest getItemRequest)
+    {
+        return Mono.defer(() -> getsInFlight.computeIfAbsent(getItemRequest, this::getItem));
+    }
+
+    /**
+     * The shared call behind {@link #get(GetItemRequest)}: it is cached for all of its subscribers and
+     * forgotten as soon as it terminates, so later calls go to DynamoDB again.
+     */
+    private Mono<Map<String, AttributeValue>> getItem(GetItemRequest getItemRequest)
+    {
+        return Mono.just(getItemRequest)
+            .log("GET " + getItemRequest.tableName(), Level.FINER, SignalType.ON_NEXT)
+            .map(it -> Optional.ofNullable(it.returnConsumedCapacityAsString())
+                .map(consumed -> it)
+                .orElseGet(() -> it.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build()))
+            .flatMap(it -> execute(Operation.GET, it.tableName(), null, it, ddbClient::getItem,
+                                   response -> capacityOf(response.consumedCapacity())))
+            .map(GetItemResponse::item)
+            .filter(it -> !it.isEmpty())
+            .doFinally(signal -> getsInFlight.remove(getItemRequest))
+            .cache();
+    }
+
+    @Override
+    public Function<Flux<Map<String, AttributeValue>>, Flux<Map<String, AttributeValue>>> batchGet(
+        @NonNull String tableName)
+    {
+        return keys -> keys
+            .bufferTimeout(MAX_BATCH_GET_SIZE, MAX_BATCH_WAIT)
+            .map(batch -> batch.stream().distinct().collect(Collectors.toList()))
+            .map(batch -> BatchGetItemRequest.builder()
+                .requestItems(Collections.singletonMap(tableName, KeysAndAttributes.builder().keys(batch).build()))
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build())
+            .flatMap(request -> batchGet(tableName, request, Duration.ZERO), MAX_BATCHES_IN_FLIGHT)
+            .flatMapIterable(response -> response.responses().getOrDefault(tableName, Collections.emptyList()));
+    }
+
+    private Flux<BatchGetItemResponse> batchGet(String tableName, BatchGetItemRequest request, Duration backoff)
+    {
+        return Mono.just(request)
+            .log("BATCH GET " + tableName, Level.FINER, SignalType.ON_NEXT)
+            .flatMap(it -> execute(Operation.BATCH_GET, tableName, null, it, ddbClient::batchGetItem,
+                                   BatchGetItemResponse::consumedCapacity))
+            .doOnNext(it -> metrics.items(Operation.BATCH_GET, tableName, null,
+                                          it.responses().getOrDefault(tableName, Collections.emptyList()).size()))
+            .flatMapMany(response -> Optional.of(response.unprocessedKeys())
+                .filter(it -> !it.isEmpty())
+                .map(unprocessed -> Flux.just(response)
+                    .doOnComplete(() -> metrics.throttled(Operation.BATCH_GET, tableName, unprocessed.values()
+                        .stream()
+                        .mapToInt(it -> it.keys().size())
+                        .sum()))
+                    .concatWith(Mono.fromSupplier(() -> retryPolicy.backoff(backoff))
+                                    .flatMapMany(next -> Mono.delay(next)
+                                        .thenMany(batchGet(tableName,
+                                                           request.toBuilder().requestItems(unprocessed).build(),
+                                                           next)))))
+                .orElseGet(() -> Flux.just(response)));
+    }
+
+    @Override
+    public Function<Flux<WriteRequest>, Flux<WriteRequest>> batchWrite(@NonNull String tableName)
+    {
+        return requests -> requests
+            .bufferTimeout(MAX_BATCH_WRITE_SIZE, MAX_BATCH_WAIT)
+            .map(batch -> BatchWriteItemRequest.builder()
+                .requestItems(Collections.singletonMap(tableName, batch))
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build())
+            .flatMap(request -> batchWrite(tableName, request, Duration.ZERO), MAX_BATCHES_IN_FLIGHT);
+    }
+
+    private Flux<WriteRequest> batchWrite(String tableName, BatchWriteItemRequest request, Duration backoff)
+    {
+        return Mono.just(request)
+            .log("BATCH WRITE " + tableName, Level.FINER, SignalType.ON_NEXT)
+            .flatMap(it -> execute(Operation.BATCH_WRITE, tableName, null, it, ddbClient::batchWriteItem,
+                                   BatchWriteItemResponse::consumedCapacity))
+            .flatMapMany(response -> {
+                Set<WriteRequest> unprocessed = response.unprocessedItems()
+                    .values()
+                    .stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toSet());
+
+                Flux<WriteRequest> written = Flux.fromIterable(request.requestItems().values())
+                    .flatMapIterable(Function.identity())
+                    .filter(it -> !unprocessed.contains(it));
+
+                return Optional.of(response.unprocessedItems())
+                    .filter(it -> !unprocessed.isEmpty())
+                    .map(it -> written
+                        .doOnComplete(() -> metrics.throttled(Operation.BATCH_WRITE, tableName, unprocessed.size()))
+                        .concatWith(Mono.fromSupplier(() -> retryPolicy.backoff(backoff))
+                                        .flatMapMany(next -> Mono.delay(next)
+                                            .thenMany(batchWrite(tableName,
+                                                                 request.toBuilder().requestItems(it).build(),
+                                                                 next)))))
+                    .orElse(written);
+            });
+    }
+
+    @Override
+    public Mono<Void> transactWrite(@NonNull List<TransactWriteItem> items)
+    {
+        return Flux.fromIterable(items)
+            .buffer(MAX_TRANSACTION_SIZE)
+            .flatMap(this::transactWriteChunk, MAX_TRANSACTIONS_IN_FLIGHT)
+            .then();
+    }
+
+    private Mono<TransactWriteItemsResponse> transactWriteChunk(List<TransactWriteItem> items)
+    {
+        TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+            .transactItems(items)
+            .clientRequestToken(UUID.randomUUID().toString())
+            .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+            .build();
+
+        return Mono.just(request)
+            .log("TRANSACT WRITE", Level.FINER, SignalType.ON_NEXT)
+            .flatMap(it -> execute(Operation.TRANSACT_WRITE,
+                                   items.stream().map(RxDynamoImpl::tableOf).collect(Collectors.toSet()),
+                                   null, it, ddbClient::transactWriteItems,
+                                   TransactWriteItemsResponse::consumedCapacity))
+            .onErrorMap(TransactionCanceledException.class, e -> new TransactionFailedException(items, e));
+    }
+
+    private static String tableOf(TransactWriteItem item)
+    {
+        return Stream.of(Optional.ofNullable(item.put()).map(Put::tableName),
+                         Optional.ofNullable(item.update()).map(Update::tableName),
+                         Optional.ofNullable(item.delete()).map(Delete::tableName),
+                         Optional.ofNullable(item.conditionCheck()).map(ConditionCheck::tableName))
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Empty transaction item: " + item));
+    }
+
+    @Override
+    public Mono<List<Map<String, AttributeValue>>> transactGet(@NonNull List<TransactGetItem> items)
+    {
+        return Flux.fromIterable(items)
+            .buffer(MAX_TRANSACTION_SIZE)
+            .flatMapSequential(this::transactGetChunk, MAX_TRANSACTIONS_IN_FLIGHT)
+            .flatMapIterable(TransactGetItemsResponse::responses)
+            .map(ItemResponse::item)
+            .collectList();
+    }
+
+    private Mono<TransactGetItemsResponse> transactGetChunk(List<TransactGetItem> items)
+    {
+        TransactGetItemsRequest request = TransactGetItemsRequest.builder()
+            .transactItems(items)
+            .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+            .build();
+
+        return Mono.just(request)
+            .log("TRANSACT GET", Level.FINER, SignalType.ON_NEXT)
+            .flatMap(it -> execute(Operation.TRANSACT_GET,
+                                   items.stream().map(item -> item.get().tableName()).collect(Collectors.toSet()),
+                                   null, it, ddbClient::transactGetItems,
+                                   TransactGetItemsResponse::consumedCapacity))
+            .onErrorMap(TransactionCanceledException.class, e -> new TransactionFailedException(items, e));
     }
 
     @Override
@@ -79,8 +739,11 @@ public class RxDynamoImpl implements RxDynamo
     {
         return Mono.just(putItemRequest)
             .log("PUT " + putItemRequest.tableName(), Level.FINER, SignalType.ON_NEXT)
-            .map(ddbClient::putItem)
-            .flatMap(Mono::fromFuture);
+            .map(it -> Optional.ofNullable(it.returnConsumedCapacityAsString())
+                .map(consumed -> it)
+                .orElseGet(() -> it.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build()))
+            .flatMap(it -> execute(Operation.PUT, it.tableName(), null, it, ddbClient::putItem,
+                                   response -> capacityOf(response.consumedCapacity())));
     }
 
     @Override
@@ -88,16 +751,80 @@ public class RxDynamoImpl implements RxDynamo
     {
         return Mono.just(updateItemRequest)
             .log("UPDATE " + updateItemRequest.tableName(), Level.FINER, SignalType.ON_NEXT)
-            .map(ddbClient::updateItem)
-            .flatMap(Mono::fromFuture);
+            .map(it -> Optional.ofNullable(it.returnConsumedCapacityAsString())
+                .map(consumed -> it)
+                .orElseGet(() -> it.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build()))
+            .flatMap(it -> execute(Operation.UPDATE, it.tableName(), null, it, ddbClient::updateItem,
+                                   response -> capacityOf(response.consumedCapacity())));
     }
 
     @Override
     public Mono<DeleteItemResponse> delete(@NonNull DeleteItemRequest deleteItemRequest)
     {
         return Mono.just(deleteItemRequest)
-                .map(ddbClient::deleteItem)
-                .flatMap(Mono::fromFuture);
+            .map(it -> Optional.ofNullable(it.returnConsumedCapacityAsString())
+                .map(consumed -> it)
+                .orElseGet(() -> it.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build()))
+            .flatMap(it -> execute(Operation.DELETE, it.tableName(), null, it, ddbClient::deleteItem,
+                                   response -> capacityOf(response.consumedCapacity())));
+    }
+
+    private <Q, R> Mono<R> execute(
+        Operation operation,
+        String tableName,
+        String indexName,
+        Q request,
+        Function<Q, CompletableFuture<R>> call,
+        Function<R, List<ConsumedCapacity>> consumedCapacity)
+    {
+        return execute(operation, Collections.singleton(tableName), indexName, request, call, consumedCapacity);
+    }
+
+    /**
+     * Sends a request once the capacity limiter lets it through on every table it touches, reports
+     * the capacity it consumed back and records its metrics. Failed requests are sent again as the retry policy
+     * allows.
+     */
+    private <Q, R> Mono<R> execute(
+        Operation operation,
+        Collection<String> tableNames,
+        String indexName,
+        Q request,
+        Function<Q, CompletableFuture<R>> call,
+        Function<R, List<ConsumedCapacity>> consumedCapacity)
+    {
+        String tableName = tableNames.stream().sorted().collect(Collectors.joining(","));
+
+        return retryPolicy.execute(tableNames, Flux.fromIterable(tableNames)
+            .concatMap(it -> capacityLimiter.acquire(it, operation.getCapacityType()))
+            .then(Mono.defer(() -> {
+                long start = System.nanoTime();
+                return Mono.fromFuture(call.apply(request))
+                    .doOnSuccess(it -> metrics.request(operation, tableName, indexName, since(start), null))
+                    .doOnError(e -> {
+                        metrics.request(operation, tableName, indexName, since(start), e);
+                        if (RetryPolicy.isThrottling(e)) {
+                            metrics.throttled(operation, tableName, 1);
+                        }
+                    });
+            }))
+            .doOnNext(response -> consumedCapacity.apply(response)
+                .forEach(it -> {
+                    capacityLimiter.consumed(operation.getCapacityType(), it);
+                    metrics.consumed(operation, it);
+                })));
+    }
+
+    private static Duration since(long start)
+    {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static List<ConsumedCapacity> capacityOf(ConsumedCapacity consumedCapacity)
+    {
+        return Optional.ofNullable(consumedCapacity)
+            .map(Collections::singletonList)
+            .orElseGet(Collections::emptyList);
     }
 
     @Override
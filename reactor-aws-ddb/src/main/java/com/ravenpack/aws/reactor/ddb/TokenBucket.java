@@ -0,0 +1,45 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import java.time.Duration;
+
+/**
+ * Capacity units refilled at a fixed rate, holding at most one second worth of them.
+ * Consumption is recorded after the fact, so the bucket may go into debt, which delays subsequent requests.
+ */
+class TokenBucket
+{
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double unitsPerSecond;
+    private double available;
+    private long refilledAt;
+
+    TokenBucket(double unitsPerSecond)
+    {
+        this.unitsPerSecond = unitsPerSecond;
+        this.available = unitsPerSecond;
+        this.refilledAt = System.nanoTime();
+    }
+
+    synchronized Duration waitTime()
+    {
+        refill();
+        if (available > 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) Math.ceil(-available / unitsPerSecond * NANOS_PER_SECOND) + 1);
+    }
+
+    synchronized void consume(double units)
+    {
+        refill();
+        available -= units;
+    }
+
+    private void refill()
+    {
+        long now = System.nanoTime();
+        available = Math.min(unitsPerSecond, available + (now - refilledAt) / NANOS_PER_SECOND * unitsPerSecond);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Builder;
+import lombok.Singular;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.NonNull;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Caps the read and write capacity units per second that may be consumed on each table, e.g. to keep
+ * a background job at a fraction of the provisioned throughput:
+ * <pre>
+ * RxDynamo rxDynamo = new RxDynamoImpl(client)
+ *     .withCapacityLimiter(TokenBucketCapacityLimiter.builder()
+ *                              .readLimit("Customer", 0.2 * provisionedReadCapacity)
+ *                              .build());
+ * </pre>
+ * Tables without a limit are not throttled.
+ */
+public class TokenBucketCapacityLimiter implements CapacityLimiter
+{
+    private final Map<String, TokenBucket> readBuckets;
+    private final Map<String, TokenBucket> writeBuckets;
+
+    @Builder
+    private TokenBucketCapacityLimiter(@Singular Map<String, Double> readLimits, @Singular Map<String, Double> writeLimits)
+    {
+        this.readBuckets = toBuckets(readLimits);
+        this.writeBuckets = toBuckets(writeLimits);
+    }
+
+    private static Map<String, TokenBucket> toBuckets(Map<String, Double> limits)
+    {
+        return limits.entrySet()
+            .stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, it -> new TokenBucket(it.getValue())));
+    }
+
+    @Override
+    public Mono<Void> acquire(@NonNull String tableName, @NonNull CapacityType capacityType)
+    {
+        return bucket(tableName, capacityType)
+            .map(this::acquire)
+            .orElseGet(Mono::empty);
+    }
+
+    private Mono<Void> acquire(TokenBucket bucket)
+    {
+        return Mono.defer(() -> Optional.of(bucket.waitTime())
+            .filter(it -> !it.isZero())
+            .map(it -> Mono.delay(it).then(acquire(bucket)))
+            .orElseGet(Mono::empty));
+    }
+
+    @Override
+    public void consumed(@NonNull CapacityType capacityType, @NonNull ConsumedCapacity consumedCapacity)
+    {
+        Optional.ofNullable(consumedCapacity.capacityUnits())
+            .ifPresent(units -> bucket(consumedCapacity.tableName(), capacityType)
+                .ifPresent(it -> it.consume(units)));
+    }
+
+    private Optional<TokenBucket> bucket(String tableName, CapacityType capacityType)
+    {
+        Map<String, TokenBucket> buckets = CapacityType.READ == capacityType ? readBuckets : writeBuckets;
+        return Optional.ofNullable(tableName).map(buckets::get);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Getter;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cancelled transaction, with the reason DynamoDB gave for each item that caused it. Items are the
+ * {@code TransactWriteItem}s or {@code TransactGetItem}s of the failed transaction, in their original order.
+ */
+@Getter
+public class TransactionFailedException extends RuntimeException
+{
+    private static final String NO_FAILURE = "None";
+
+    private final Map<Object, CancellationReason> reasons;
+
+    TransactionFailedException(List<?> items, TransactionCanceledException cause)
+    {
+        super(cause.getMessage(), cause);
+
+        Map<Object, CancellationReason> failed = new LinkedHashMap<>();
+        List<CancellationReason> cancellationReasons = cause.cancellationReasons();
+        for (int i = 0; i < Math.min(items.size(), cancellationReasons.size()); i++) {
+            CancellationReason reason = cancellationReasons.get(i);
+            if (!NO_FAILURE.equals(reason.code())) {
+                failed.put(items.get(i), reason);
+            }
+        }
+        this.reasons = Collections.unmodifiableMap(failed);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ravenpack.aws.reactor.ddb.datamodeling;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a numeric attribute whose changes are written as an increment (ADD) rather than overwritten,
+ * so that concurrent updates of the counter add up.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface DynamoDBCounter
+{
+}
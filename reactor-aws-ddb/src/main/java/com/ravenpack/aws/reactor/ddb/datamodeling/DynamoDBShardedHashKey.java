@@ -0,0 +1,18 @@
+package com.ravenpack.aws.reactor.ddb.datamodeling;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a string hash key whose writes are spread over {@code shards} hash keys, to keep a hot key from
+ * throttling. The stored key gets a shard suffix derived from the range key, so an item is always found in the
+ * same shard, and searches on the key query every shard and merge the results. The table needs a range key.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface DynamoDBShardedHashKey
+{
+    int shards();
+}
@@ -1,17 +1,62 @@
 package com.ravenpack.aws.reactor.ddb.mapper;
 
+import lombok.AllArgsConstructor;
 import lombok.Value;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 @Value
+@AllArgsConstructor
 public class FieldMappingDescription<T>
 {
     String ddbName;
     boolean keyValue;
     BiFunction<T, AttributeValue, T> wither;
     Function<T, Optional<AttributeValue>> export;
+    /**
+     * Numeric attribute changed by increments, see {@code DynamoDBCounter}.
+     */
+    boolean counter;
+    /**
+     * Sets the attribute on the builder of T, null when the field is hydrated with the wither.
+     */
+    BiConsumer<Object, AttributeValue> setter;
+
+    public FieldMappingDescription(
+        String ddbName,
+        boolean keyValue,
+        BiFunction<T, AttributeValue, T> wither,
+        Function<T, Optional<AttributeValue>> export)
+    {
+        this(ddbName, keyValue, wither, export, false);
+    }
+
+    public FieldMappingDescription(
+        String ddbName,
+        boolean keyValue,
+        BiFunction<T, AttributeValue, T> wither,
+        Function<T, Optional<AttributeValue>> export,
+        boolean counter)
+    {
+        this(ddbName, keyValue, wither, export, counter, null);
+    }
+
+    /**
+     * Field hydrated through the builder B of T, for mappers that build T once per item.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, B> FieldMappingDescription<T> builderField(
+        String ddbName,
+        boolean keyValue,
+        BiConsumer<B, AttributeValue> setter,
+        Function<T, Optional<AttributeValue>> export,
+        boolean counter)
+    {
+        return new FieldMappingDescription<>(ddbName, keyValue, null, export, counter,
+                                             (BiConsumer<Object, AttributeValue>) setter);
+    }
 }
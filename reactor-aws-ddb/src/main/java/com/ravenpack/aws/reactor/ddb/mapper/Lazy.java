@@ -0,0 +1,91 @@
+package com.ravenpack.aws.reactor.ddb.mapper;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Field of a document, or of a list of documents, decoded on first access. Declaring a field as {@code Lazy<Doc>}
+ * or {@code Lazy<List<Doc>>} keeps the attribute as read, so items whose nested documents are never looked at skip
+ * decoding them. A value that was never decoded is written back as it was read.
+ */
+public final class Lazy<T> implements Supplier<T>
+{
+    private final AttributeValue attribute;
+    private final Function<AttributeValue, T> decoder;
+    private volatile T value;
+
+    private Lazy(AttributeValue attribute, Function<AttributeValue, T> decoder, T value)
+    {
+        this.attribute = attribute;
+        this.decoder = decoder;
+        this.value = value;
+    }
+
+    public static <T> Lazy<T> of(T value)
+    {
+        return new Lazy<>(null, null, Objects.requireNonNull(value));
+    }
+
+    /**
+     * Used by the generated mappers.
+     */
+    public static <T> Lazy<T> decoding(AttributeValue attribute, Function<AttributeValue, T> decoder)
+    {
+        return new Lazy<>(Objects.requireNonNull(attribute), decoder, null);
+    }
+
+    @Override
+    public T get()
+    {
+        T current = value;
+        if (null == current) {
+            synchronized (this) {
+                if (null == value) {
+                    value = Objects.requireNonNull(decoder.apply(attribute));
+                }
+                current = value;
+            }
+        }
+        return current;
+    }
+
+    public boolean isDecoded()
+    {
+        return null != value;
+    }
+
+    /**
+     * The attribute as read when the value was never decoded, otherwise the encoded value.
+     */
+    public AttributeValue export(Function<T, AttributeValue> encoder)
+    {
+        return isDecoded() ? encoder.apply(value) : attribute;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Lazy)) {
+            return false;
+        }
+        return get().equals(((Lazy<?>) o).get());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return get().hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return isDecoded() ? "Lazy(" + value + ")" : "Lazy(" + attribute + ")";
+    }
+}
@@ -4,9 +4,15 @@ import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.services.dynamodb.model.AttributeAction;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValueUpdate;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -16,19 +22,54 @@ public class LiveMappingDescription<T>
 {
 
     private final Supplier<T> supplier;
+    private final Supplier<Object> builder;
+    private final Function<Object, T> build;
     private final List<FieldMappingDescription<T>> fields;
     private final Map<String, FieldMappingDescription<T>> dict;
     public LiveMappingDescription(Supplier<T> supplier, List<FieldMappingDescription<T>> fields){
+        this(supplier, null, null, fields);
+    }
+
+    /**
+     * Mapper that hydrates an item with a single builder: the setters of the fields are applied to one
+     * builder, which is built once, instead of copying the object with a wither per attribute.
+     */
+    @SuppressWarnings("unchecked")
+    public <B> LiveMappingDescription(
+        Supplier<B> builder,
+        Function<B, T> build,
+        List<FieldMappingDescription<T>> fields)
+    {
+        this(null, (Supplier<Object>) builder, (Function<Object, T>) build, fields);
+    }
+
+    private LiveMappingDescription(
+        Supplier<T> supplier,
+        Supplier<Object> builder,
+        Function<Object, T> build,
+        List<FieldMappingDescription<T>> fields)
+    {
         this.supplier = supplier;
+        this.builder = builder;
+        this.build = build;
         this.fields = fields;
         dict = fields.stream()
                 .collect(Collectors.toMap(FieldMappingDescription::getDdbName, Function.identity()));
-
-
     }
 
     public T transform(Map<String, AttributeValue> m)
     {
+        if (null != builder) {
+            Object initialBuilder = builder.get();
+
+            for (Map.Entry<String, AttributeValue> e : m.entrySet()) {
+                FieldMappingDescription<T> field = dict.get(e.getKey());
+                if (null != field) {
+                    field.getSetter().accept(initialBuilder, e.getValue());
+                }
+            }
+            return build.apply(initialBuilder);
+        }
 
          T initialObject  = supplier.get();
 
@@ -47,6 +88,16 @@ public class LiveMappingDescription<T>
         return initialObject;
     }
 
+    /**
+     * Mapper that hydrates only the given attributes, for items read with a projection.
+     */
+    public LiveMappingDescription<T> project(Collection<String> attributeNames)
+    {
+        return new LiveMappingDescription<>(supplier, builder, build, fields.stream()
+            .filter(it -> attributeNames.contains(it.getDdbName()))
+            .collect(Collectors.toList()));
+    }
+
     public Map<String, AttributeValue> export(T object)
     {
         return fields.stream().collect(
@@ -73,23 +124,92 @@ public class LiveMappingDescription<T>
 
     }
 
-    public Map<String, AttributeValueUpdate> exportUpdate(T object)
+    /**
+     * Names of the attributes written by {@link #exportKeys(Object)}.
+     */
+    public Set<String> keyAttributeNames()
     {
         return fields.stream()
+            .filter(FieldMappingDescription::isKeyValue)
+            .map(FieldMappingDescription::getDdbName)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * PUT of every non key attribute, taken from {@link #export(Object)}.
+     */
+    public Map<String, AttributeValueUpdate> exportUpdate(T object)
+    {
+        Map<String, AttributeValue> item = export(object);
+        Map<String, AttributeValueUpdate> update = new HashMap<>(fields.size() * 4 / 3 + 1);
+
+        for (FieldMappingDescription<T> field : fields) {
+            AttributeValue value = item.get(field.getDdbName());
+            if (!field.isKeyValue() && null != value) {
+                update.put(field.getDdbName(), AttributeValueUpdate.builder()
+                    .action(AttributeAction.PUT)
+                    .value(value)
+                    .build());
+            }
+        }
+        return update;
+    }
+
+    /**
+     * The same update as {@link #exportUpdate(Object)}, as a SET update expression. Transactions accept only
+     * update expressions. The table name is left for the caller to fill in.
+     */
+    public Update exportUpdateExpression(T object)
+    {
+        UpdateExpressionBuilder expression = new UpdateExpressionBuilder();
+        Map<String, AttributeValue> item = export(object);
+
+        fields.stream()
             .filter(it -> !it.isKeyValue())
-            .collect(
-                Collectors.toMap(FieldMappingDescription::getDdbName, it -> it.getExport().apply(object)))
-            .entrySet()
-            .stream()
-            .filter(it -> it.getValue().isPresent())
-            .collect(Collectors.toMap(Map.Entry::getKey,
-                                      it -> AttributeValueUpdate.builder()
-                                          .action(AttributeAction.PUT)
-                                          .value(it.getValue().get())
-                                          .build()));
+            .forEach(field -> Optional.ofNullable(item.get(field.getDdbName()))
+                .ifPresent(value -> expression.set(field.getDdbName(), value)));
 
+        return expression.build(exportKeys(object))
+            .orElseThrow(() -> new IllegalArgumentException("Nothing to update in " + object));
     }
 
-}
+    /**
+     * Update expression touching only the attributes that differ between the two versions of an item:
+     * changed attributes are SET, cleared ones REMOVEd, and counters get the difference ADDed.
+     *
+     * @return the update, or empty when there is no difference
+     */
+    public Optional<Update> exportUpdateExpression(T oldObject, T newObject)
+    {
+        UpdateExpressionBuilder expression = new UpdateExpressionBuilder();
+        Map<String, AttributeValue> oldItem = export(oldObject);
+        Map<String, AttributeValue> newItem = export(newObject);
 
+        fields.stream()
+            .filter(it -> !it.isKeyValue())
+            .forEach(field -> {
+                Optional<AttributeValue> oldValue = Optional.ofNullable(oldItem.get(field.getDdbName()));
+                Optional<AttributeValue> newValue = Optional.ofNullable(newItem.get(field.getDdbName()));
+
+                if (oldValue.equals(newValue)) {
+                    return;
+                }
+                if (!newValue.isPresent()) {
+                    expression.remove(field.getDdbName());
+                } else if (field.isCounter() && oldValue.isPresent()) {
+                    expression.add(field.getDdbName(), difference(oldValue.get(), newValue.get()));
+                } else {
+                    expression.set(field.getDdbName(), newValue.get());
+                }
+            });
+
+        return expression.build(exportKeys(newObject));
+    }
 
+    private static AttributeValue difference(AttributeValue oldValue, AttributeValue newValue)
+    {
+        return AttributeValue.builder()
+            .n(new BigDecimal(newValue.n()).subtract(new BigDecimal(oldValue.n())).toPlainString())
+            .build();
+    }
+}
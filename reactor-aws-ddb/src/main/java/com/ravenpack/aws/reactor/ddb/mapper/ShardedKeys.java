@@ -0,0 +1,47 @@
+package com.ravenpack.aws.reactor.ddb.mapper;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Stored values of hash keys annotated with
+ * {@link com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBShardedHashKey}: the key followed by
+ * {@code #} and the number of its shard.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ShardedKeys
+{
+    private static final char SEPARATOR = '#';
+
+    /**
+     * The stored key of an item, its shard picked by the hash of the stored range key, which is stable across JVMs
+     * and does not depend on the java type the range key is mapped to.
+     */
+    public static String shard(String key, AttributeValue rangeKey, int shards)
+    {
+        String stored = Optional.ofNullable(rangeKey.s()).orElseGet(rangeKey::n);
+        return key + SEPARATOR + Math.floorMod(stored.hashCode(), shards);
+    }
+
+    public static String unshard(String storedKey)
+    {
+        int separator = storedKey.lastIndexOf(SEPARATOR);
+        return separator < 0 ? storedKey : storedKey.substring(0, separator);
+    }
+
+    /**
+     * The stored keys of all the shards of a key.
+     */
+    public static List<AttributeValue> shards(String key, int shards)
+    {
+        return IntStream.range(0, shards)
+            .mapToObj(it -> AttributeValue.builder().s(key + SEPARATOR + it).build())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ravenpack.aws.reactor.ddb.mapper;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Collects SET, REMOVE and ADD actions into a single update expression, with placeholders for all of the
+ * attribute names and values.
+ */
+class UpdateExpressionBuilder
+{
+    private final List<String> sets = new ArrayList<>();
+    private final List<String> removes = new ArrayList<>();
+    private final List<String> adds = new ArrayList<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final Map<String, AttributeValue> values = new HashMap<>();
+
+    UpdateExpressionBuilder set(String attributeName, AttributeValue value)
+    {
+        String placeholder = placeholder(attributeName, value);
+        sets.add("#" + placeholder + " = :" + placeholder);
+        return this;
+    }
+
+    UpdateExpressionBuilder remove(String attributeName)
+    {
+        removes.add("#" + placeholder(attributeName, null));
+        return this;
+    }
+
+    UpdateExpressionBuilder add(String attributeName, AttributeValue value)
+    {
+        String placeholder = placeholder(attributeName, value);
+        adds.add("#" + placeholder + " :" + placeholder);
+        return this;
+    }
+
+    /**
+     * @return the update of the item with the given key, or empty when no action was collected
+     */
+    Optional<Update> build(Map<String, AttributeValue> key)
+    {
+        if (names.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<String> clauses = new ArrayList<>();
+        if (!sets.isEmpty()) {
+            clauses.add("SET " + String.join(", ", sets));
+        }
+        if (!removes.isEmpty()) {
+            clauses.add("REMOVE " + String.join(", ", removes));
+        }
+        if (!adds.isEmpty()) {
+            clauses.add("ADD " + String.join(", ", adds));
+        }
+
+        Update.Builder update = Update.builder()
+            .key(key)
+            .updateExpression(String.join(" ", clauses))
+            .expressionAttributeNames(names);
+        // DynamoDB rejects an empty map of values, which is what a REMOVE-only update would have
+        if (!values.isEmpty()) {
+            update.expressionAttributeValues(values);
+        }
+        return Optional.of(update.build());
+    }
+
+    private String placeholder(String attributeName, AttributeValue value)
+    {
+        String placeholder = "f" + names.size();
+        names.put("#" + placeholder, attributeName);
+        Optional.ofNullable(value).ifPresent(it -> values.put(":" + placeholder, it));
+        return placeholder;
+    }
+}
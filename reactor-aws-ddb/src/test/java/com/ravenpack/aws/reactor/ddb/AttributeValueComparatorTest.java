@@ -0,0 +1,51 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AttributeValueComparatorTest
+{
+    private final AttributeValueComparator comparator = new AttributeValueComparator();
+
+    @Test
+    void numbersByValue()
+    {
+        assertThat(comparator.compare(AttributeValue.builder().n("9").build(),
+                                      AttributeValue.builder().n("10.5").build()))
+            .isNegative();
+        assertThat(comparator.compare(AttributeValue.builder().n("1.0").build(),
+                                      AttributeValue.builder().n("1").build()))
+            .isZero();
+    }
+
+    @Test
+    void stringsByCodePoints()
+    {
+        assertThat(comparator.compare(AttributeValue.builder().s("ab").build(),
+                                      AttributeValue.builder().s("abc").build()))
+            .isNegative();
+        assertThat(comparator.compare(AttributeValue.builder().s("\uD83D\uDE00").build(),
+                                      AttributeValue.builder().s("\uFFFD").build()))
+            .isPositive();
+    }
+
+    @Test
+    void binariesUnsigned()
+    {
+        assertThat(comparator.compare(AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[]{0x7f})).build(),
+                                      AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[]{-1})).build()))
+            .isNegative();
+    }
+
+    @Test
+    void differentTypesAreNotComparable()
+    {
+        assertThatThrownBy(() -> comparator.compare(AttributeValue.builder().s("1").build(),
+                                                    AttributeValue.builder().n("1").build()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
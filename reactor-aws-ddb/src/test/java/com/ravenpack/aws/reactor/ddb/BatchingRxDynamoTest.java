@@ -0,0 +1,126 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingRxDynamoTest
+{
+    private static final String TABLE = "table";
+
+    @Mock
+    private RxDynamo delegate;
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private BatchingRxDynamo rxDynamo;
+
+    @BeforeEach
+    void prepare()
+    {
+        when(delegate.batchGet(anyString()))
+            .thenReturn(keys -> keys.collectList()
+                .doOnNext(it -> batchSizes.add(it.size()))
+                .flatMapIterable(it -> it)
+                .filter(it -> !it.get("uid").s().startsWith("missing"))
+                .map(BatchingRxDynamoTest::item));
+
+        rxDynamo = BatchingRxDynamo.builder()
+            .delegate(delegate)
+            .maxBatchSize(100)
+            .window(Duration.ofMillis(50))
+            .build();
+    }
+
+    @Test
+    void getsAreSentInBatches()
+    {
+        StepVerifier.create(Flux.range(0, 250)
+                                .flatMap(it -> rxDynamo.get(request("uid" + it))
+                                    .filter(item -> item.get("uid").s().equals("uid" + it)), 250)
+                                .count())
+            .expectNext(250L)
+            .verifyComplete();
+
+        assertThat(batchSizes).containsExactly(100, 100, 50);
+    }
+
+    @Test
+    void missingItemsCompleteEmpty()
+    {
+        StepVerifier.create(Flux.just("uid", "missing")
+                                .flatMap(it -> rxDynamo.get(request(it)))
+                                .map(it -> it.get("uid").s()))
+            .expectNext("uid")
+            .verifyComplete();
+
+        assertThat(batchSizes).containsExactly(2);
+    }
+
+    @Test
+    void duplicateKeysAreSentOnce()
+    {
+        StepVerifier.create(Flux.just("uid", "uid")
+                                .flatMap(it -> rxDynamo.get(request(it)))
+                                .count())
+            .expectNext(2L)
+            .verifyComplete();
+
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    @Test
+    void closeSendsWaitingGetsAndStopsBatching()
+    {
+        Mono<String> waiting = rxDynamo.get(request("uid")).map(it -> it.get("uid").s()).cache();
+        waiting.subscribe();
+
+        rxDynamo.close();
+
+        StepVerifier.create(waiting)
+            .expectNext("uid")
+            .verifyComplete();
+        assertThat(batchSizes).containsExactly(1);
+
+        GetItemRequest late = request("late");
+        when(delegate.get(late)).thenReturn(Mono.empty());
+        StepVerifier.create(rxDynamo.get(late))
+            .verifyComplete();
+        verify(delegate).get(late);
+    }
+
+    private static GetItemRequest request(String uid)
+    {
+        return GetItemRequest.builder()
+            .tableName(TABLE)
+            .key(Collections.singletonMap("uid", AttributeValue.builder().s(uid).build()))
+            .build();
+    }
+
+    private static Map<String, AttributeValue> item(Map<String, AttributeValue> key)
+    {
+        Map<String, AttributeValue> item = new HashMap<>(key);
+        item.put("payload", AttributeValue.builder().s("payload").build());
+        return item;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingRxDynamoTest
+{
+    private static final String TABLE = "table";
+
+    @Mock
+    private RxDynamo delegate;
+
+    private final AtomicInteger fetched = new AtomicInteger();
+
+    private CachingRxDynamo rxDynamo;
+
+    @BeforeEach
+    void setUp()
+    {
+        lenient().when(delegate.batchGet(anyString()))
+            .thenReturn(keys -> keys.doOnNext(it -> fetched.incrementAndGet()).map(CachingRxDynamoTest::item));
+        lenient().when(delegate.save(any()))
+            .thenReturn(Mono.just(PutItemResponse.builder().build()));
+
+        rxDynamo = CachingRxDynamo.builder()
+            .delegate(delegate)
+            .maximumSize(2)
+            .timeToLive(TABLE, Duration.ofMinutes(1))
+            .build();
+    }
+
+    @Test
+    void secondReadIsServedFromCache()
+    {
+        read("a", "b");
+        read("a", "b");
+
+        assertThat(fetched).hasValue(2);
+        assertThat(rxDynamo.getStats()).isEqualTo(new CacheStats(2, 2, 0));
+    }
+
+    @Test
+    void saveInvalidatesEntry()
+    {
+        read("a");
+        rxDynamo.save(PutItemRequest.builder().tableName(TABLE).item(item(key("a"))).build()).block();
+        read("a");
+
+        assertThat(fetched).hasValue(2);
+    }
+
+    @Test
+    void itemReadBeforeWriteIsNotCached()
+    {
+        GetItemRequest request = GetItemRequest.builder().tableName(TABLE).key(key("a")).build();
+        PutItemRequest write = PutItemRequest.builder().tableName(TABLE).item(item(key("a"))).build();
+        when(delegate.get(request))
+            .thenReturn(Mono.fromCallable(() -> {
+                if (1 == fetched.incrementAndGet()) {
+                    rxDynamo.save(write).block();
+                }
+                return item(key("a"));
+            }));
+
+        rxDynamo.get(request).block();
+        rxDynamo.get(request).block();
+        rxDynamo.get(request).block();
+
+        assertThat(fetched).hasValue(2);
+    }
+
+    @Test
+    void consistentReadBypassesCache()
+    {
+        read("a");
+        GetItemRequest request = GetItemRequest.builder().tableName(TABLE).key(key("a")).consistentRead(true).build();
+        when(delegate.get(request)).thenReturn(Mono.fromCallable(() -> {
+            fetched.incrementAndGet();
+            return item(key("a"));
+        }));
+
+        rxDynamo.get(request).block();
+        rxDynamo.get(request).block();
+
+        assertThat(fetched).hasValue(3);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted()
+    {
+        read("a", "b", "c");
+        read("a");
+
+        assertThat(fetched).hasValue(4);
+        assertThat(rxDynamo.getStats().getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    void tablesWithoutTimeToLiveAreNotCached()
+    {
+        Flux.just(key("a"), key("a"))
+            .transform(rxDynamo.batchGet("other"))
+            .blockLast();
+
+        assertThat(fetched).hasValue(2);
+    }
+
+    private void read(String... uids)
+    {
+        StepVerifier.create(Flux.fromArray(uids)
+                                .map(CachingRxDynamoTest::key)
+                                .transform(rxDynamo.batchGet(TABLE)))
+            .expectNextCount(uids.length)
+            .verifyComplete();
+    }
+
+    private static Map<String, AttributeValue> key(String uid)
+    {
+        return Collections.singletonMap("uid", AttributeValue.builder().s(uid).build());
+    }
+
+    private static Map<String, AttributeValue> item(Map<String, AttributeValue> key)
+    {
+        Map<String, AttributeValue> item = new HashMap<>(key);
+        item.put("payload", AttributeValue.builder().s("payload").build());
+        return item;
+    }
+}
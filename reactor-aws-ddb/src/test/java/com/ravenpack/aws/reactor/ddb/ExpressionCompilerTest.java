@@ -0,0 +1,127 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import com.ravenpack.aws.reactor.ddb.ExpressionCompiler.SearchExpressions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ExpressionCompilerTest
+{
+    private final ExpressionCompiler compiler = new ExpressionCompiler();
+
+    @Test
+    void keyAndFilterConditionsUsePlaceholders()
+    {
+        Map<String, Condition> filter = new LinkedHashMap<>();
+        filter.put("payload", condition(ComparisonOperator.BEGINS_WITH, s("pay")));
+        filter.put("val", condition(ComparisonOperator.IN, n("1"), n("2")));
+
+        SearchExpressions expressions = compiler.compile(DynamoSearch.builder()
+                                                             .tableName("table")
+                                                             .keyConditions(Collections.singletonMap(
+                                                                 "range",
+                                                                 condition(ComparisonOperator.BETWEEN, s("a"), s("b"))))
+                                                             .filterConditions(filter)
+                                                             .attributeNames(Arrays.asList("uid", "range"))
+                                                             .build());
+
+        assertThat(expressions.getKeyConditionExpression()).isEqualTo("#k0 BETWEEN :k0_0 AND :k0_1");
+        assertThat(expressions.getFilterExpression()).isEqualTo("begins_with(#f0, :f0_0) AND #f1 IN (:f1_0, :f1_1)");
+        assertThat(expressions.getProjectionExpression()).isEqualTo("#p0, #p1");
+        assertThat(expressions.getNames()).containsOnly(entry("#k0", "range"),
+                                                        entry("#f0", "payload"),
+                                                        entry("#f1", "val"),
+                                                        entry("#p0", "uid"),
+                                                        entry("#p1", "range"));
+        assertThat(expressions.getValues()).containsOnly(entry(":k0_0", s("a")),
+                                                         entry(":k0_1", s("b")),
+                                                         entry(":f0_0", s("pay")),
+                                                         entry(":f1_0", n("1")),
+                                                         entry(":f1_1", n("2")));
+    }
+
+    @Test
+    void sameShapeBindsOwnValues()
+    {
+        SearchExpressions first = compiler.compile(search(condition(ComparisonOperator.EQ, s("a"))));
+        SearchExpressions second = compiler.compile(search(condition(ComparisonOperator.EQ, s("b"))));
+
+        assertThat(second.getKeyConditionExpression()).isEqualTo(first.getKeyConditionExpression());
+        assertThat(second.getValues()).containsOnly(entry(":k0_0", s("b")));
+    }
+
+    @Test
+    void customFilterExpressionIsCombined()
+    {
+        SearchExpressions expressions = compiler.compile(
+            search(condition(ComparisonOperator.EQ, s("a")))
+                .withFilterConditions(Collections.singletonMap("val", condition(ComparisonOperator.NOT_NULL)))
+                .withFilterExpression("size(payload) > :size")
+                .withExpressionAttributeValues(Collections.singletonMap(":size", n("3"))));
+
+        assertThat(expressions.getFilterExpression()).isEqualTo("(attribute_exists(#f0)) AND (size(payload) > :size)");
+        assertThat(expressions.getValues()).containsKeys(":k0_0", ":size");
+    }
+
+    @Test
+    void inKeyConditionIsRejected()
+    {
+        assertThatThrownBy(() -> compiler.compile(search(condition(ComparisonOperator.IN, s("a"), s("b")))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void inFilterConditionOverTheLimitIsRejected()
+    {
+        AttributeValue[] values = IntStream.rangeClosed(0, ExpressionCompiler.MAX_IN_VALUES)
+            .mapToObj(it -> n(String.valueOf(it)))
+            .toArray(AttributeValue[]::new);
+
+        assertThatThrownBy(() -> compiler.compile(
+            search(condition(ComparisonOperator.EQ, s("a")))
+                .withFilterConditions(Collections.singletonMap("val", condition(ComparisonOperator.IN, values)))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("val")
+            .hasMessageContaining("at most " + ExpressionCompiler.MAX_IN_VALUES);
+        assertThat(compiler.compile(
+            search(condition(ComparisonOperator.EQ, s("a")))
+                .withFilterConditions(Collections.singletonMap(
+                    "val", condition(ComparisonOperator.IN, Arrays.copyOf(values, ExpressionCompiler.MAX_IN_VALUES)))))
+                       .getFilterExpression())
+            .startsWith("#f0 IN (");
+    }
+
+    private static DynamoSearch search(Condition keyCondition)
+    {
+        return DynamoSearch.builder()
+            .tableName("table")
+            .keyConditions(Collections.singletonMap("uid", keyCondition))
+            .build();
+    }
+
+    private static Condition condition(ComparisonOperator operator, AttributeValue... values)
+    {
+        return Condition.builder().comparisonOperator(operator).attributeValueList(values).build();
+    }
+
+    private static AttributeValue s(String value)
+    {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue n(String value)
+    {
+        return AttributeValue.builder().n(value).build();
+    }
+}
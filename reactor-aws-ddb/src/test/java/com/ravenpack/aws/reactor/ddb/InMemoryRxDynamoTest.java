@@ -0,0 +1,189 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRxDynamoTest
+{
+    private RxDynamo rxDynamo;
+
+    @BeforeEach
+    void prepareTable()
+    {
+        rxDynamo = new InMemoryRxDynamo();
+        rxDynamo.createTable(CreateTableRequest.builder()
+                                 .tableName("table")
+                                 .keySchema(key("uid", KeyType.HASH), key("range", KeyType.RANGE))
+                                 .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                                                             .indexName("byVal")
+                                                             .keySchema(key("val", KeyType.HASH))
+                                                             .projection(Projection.builder()
+                                                                             .projectionType(ProjectionType.KEYS_ONLY)
+                                                                             .build())
+                                                             .build())
+                                 .build())
+            .block();
+
+        Flux.range(0, 10)
+            .concatMap(it -> rxDynamo.save(PutItemRequest.builder()
+                                               .tableName("table")
+                                               .item(item(it % 2 == 0 ? "even" : "odd", it))
+                                               .build()))
+            .blockLast();
+    }
+
+    @Test
+    void queryNarrowsDownByRangeKey()
+    {
+        StepVerifier.create(rxDynamo.search(DynamoSearch.builder()
+                                                .tableName("table")
+                                                .keyConditions(conditions("uid", ComparisonOperator.EQ, s("even"),
+                                                                          "range", ComparisonOperator.GT, n(2)))
+                                                .filterConditions(conditions("val", ComparisonOperator.NE, n(6)))
+                                                .build())
+                                .map(it -> it.get("range").n()))
+            .expectNext("4", "8")
+            .verifyComplete();
+    }
+
+    @Test
+    void indexKeepsItsProjectedItems()
+    {
+        StepVerifier.create(rxDynamo.search(DynamoSearch.builder()
+                                                .tableName("table")
+                                                .indexName("byVal")
+                                                .keyConditions(conditions("val", ComparisonOperator.EQ, n(3)))
+                                                .build()))
+            .expectNextMatches(it -> it.keySet().equals(new HashSet<>(Arrays.asList("uid", "range", "val"))))
+            .verifyComplete();
+    }
+
+    @Test
+    void pagesResumeFromCursor()
+    {
+        DynamoSearch search = DynamoSearch.builder()
+            .tableName("table")
+            .keyConditions(conditions("uid", ComparisonOperator.EQ, s("odd")))
+            .build();
+
+        Page<Map<String, AttributeValue>> first = rxDynamo.searchPage(search, null, 3).block();
+        assertThat(first.getItems()).extracting(it -> it.get("range").n()).containsExactly("1", "3", "5");
+
+        StepVerifier.create(rxDynamo.searchPage(search, first.getCursor(), 3))
+            .expectNextMatches(it -> it.getItems().size() == 2 && !it.hasNext())
+            .verifyComplete();
+    }
+
+    @Test
+    void updateExpressionIsApplied()
+    {
+        Map<String, String> names = new HashMap<>();
+        names.put("#f0", "payload");
+        names.put("#f1", "val");
+        names.put("#f2", "tag");
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":f1", n(10));
+        values.put(":f2", s("tagged"));
+
+        rxDynamo.update(UpdateItemRequest.builder()
+                            .tableName("table")
+                            .key(key("even", 4))
+                            .updateExpression("REMOVE #f0 ADD #f1 :f1 SET #f2 = :f2")
+                            .expressionAttributeNames(names)
+                            .expressionAttributeValues(values)
+                            .build())
+            .block();
+
+        Map<String, AttributeValue> expected = new HashMap<>(key("even", 4));
+        expected.put("val", n(14));
+        expected.put("tag", s("tagged"));
+        StepVerifier.create(rxDynamo.get(GetItemRequest.builder().tableName("table").key(key("even", 4)).build()))
+            .expectNext(expected)
+            .verifyComplete();
+    }
+
+    @Test
+    void missingTableFails()
+    {
+        StepVerifier.create(rxDynamo.scan(DynamoSearch.builder().tableName("missing").build()))
+            .verifyError(ResourceNotFoundException.class);
+    }
+
+    private static Map<String, AttributeValue> item(String uid, int range)
+    {
+        Map<String, AttributeValue> item = new HashMap<>(key(uid, range));
+        item.put("val", n(range));
+        item.put("payload", s("payload" + range));
+        return item;
+    }
+
+    private static Map<String, AttributeValue> key(String uid, int range)
+    {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("uid", s(uid));
+        key.put("range", n(range));
+        return key;
+    }
+
+    private static Map<String, Condition> conditions(
+        String attribute,
+        ComparisonOperator operator,
+        AttributeValue value)
+    {
+        return Collections.singletonMap(attribute, Condition.builder()
+            .comparisonOperator(operator)
+            .attributeValueList(value)
+            .build());
+    }
+
+    private static Map<String, Condition> conditions(
+        String attribute,
+        ComparisonOperator operator,
+        AttributeValue value,
+        String otherAttribute,
+        ComparisonOperator otherOperator,
+        AttributeValue otherValue)
+    {
+        Map<String, Condition> conditions = new HashMap<>(conditions(attribute, operator, value));
+        conditions.putAll(conditions(otherAttribute, otherOperator, otherValue));
+        return conditions;
+    }
+
+    private static KeySchemaElement key(String attribute, KeyType keyType)
+    {
+        return KeySchemaElement.builder().attributeName(attribute).keyType(keyType).build();
+    }
+
+    private static AttributeValue s(String value)
+    {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue n(int value)
+    {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyRangeTest
+{
+    @Test
+    void splitUnboundedRange()
+    {
+        List<KeyRange> ranges = KeyRange.of(null).get().split(Arrays.asList(number(20), number(10)));
+
+        assertThat(ranges).hasSize(3);
+        assertThat(ranges.get(0).condition()).contains(condition(ComparisonOperator.LE, number(10)));
+        assertThat(ranges.get(1).condition())
+            .contains(condition(ComparisonOperator.BETWEEN, number(10), number(20)));
+        assertThat(ranges.get(2).condition()).contains(condition(ComparisonOperator.GE, number(20)));
+
+        assertThat(ranges.get(0).contains(number(10))).isFalse();
+        assertThat(ranges.get(1).contains(number(10))).isTrue();
+        assertThat(ranges.get(1).contains(number(20))).isFalse();
+    }
+
+    @Test
+    void splitPointsOutsideAreIgnored()
+    {
+        KeyRange range = KeyRange.of(condition(ComparisonOperator.GT, number(5))).get();
+        List<KeyRange> ranges = range.split(Arrays.asList(number(1), number(5), number(8)));
+
+        assertThat(ranges).hasSize(2);
+        assertThat(ranges.get(0).condition()).contains(condition(ComparisonOperator.BETWEEN, number(5), number(8)));
+        assertThat(ranges.get(0).contains(number(5))).isFalse();
+        assertThat(ranges.get(1).condition()).contains(condition(ComparisonOperator.GE, number(8)));
+    }
+
+    @Test
+    void equalityCanNotBeSplit()
+    {
+        assertThat(KeyRange.of(condition(ComparisonOperator.EQ, number(1)))).isEmpty();
+    }
+
+    private static AttributeValue number(int value)
+    {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+
+    private static Condition condition(ComparisonOperator operator, AttributeValue... values)
+    {
+        return Condition.builder().comparisonOperator(operator).attributeValueList(values).build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MicrometerDynamoMetricsTest
+{
+    private static final Map<String, AttributeValue> ITEM =
+        Collections.singletonMap("uid", AttributeValue.builder().s("uid").build());
+
+    @Mock
+    private DynamoDbAsyncClient ddbClient;
+
+    private MeterRegistry registry;
+
+    private RxDynamo rxDynamo;
+
+    @BeforeEach
+    void prepare()
+    {
+        registry = new SimpleMeterRegistry();
+        rxDynamo = new RxDynamoImpl(ddbClient)
+            .withMetrics(new MicrometerDynamoMetrics(registry))
+            .withRetryPolicy(RetryPolicy.NONE);
+    }
+
+    @Test
+    void queryIsMeasuredPerIndex()
+    {
+        when(ddbClient.query(any(QueryRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(
+                QueryResponse.builder()
+                    .items(Arrays.asList(ITEM, ITEM))
+                    .consumedCapacity(ConsumedCapacity.builder().tableName("table").capacityUnits(1.5).build())
+                    .build()));
+
+        DynamoSearch search = DynamoSearch.builder()
+            .tableName("table")
+            .indexName("index")
+            .keyConditions(Collections.singletonMap("uid", Condition.builder()
+                .comparisonOperator(ComparisonOperator.EQ)
+                .attributeValueList(ITEM.get("uid"))
+                .build()))
+            .build();
+
+        StepVerifier.create(rxDynamo.search(search))
+            .expectNextCount(2)
+            .verifyComplete();
+
+        assertThat(registry.get("ddb.requests")
+                       .tags("table", "table", "index", "index", "operation", "QUERY", "outcome", "success")
+                       .timer()
+                       .count())
+            .isEqualTo(1);
+        assertThat(registry.get("ddb.items").tags("index", "index").summary().totalAmount())
+            .isEqualTo(2.0);
+        assertThat(registry.get("ddb.consumed.capacity").tags("operation", "QUERY").counter().count())
+            .isEqualTo(1.5);
+    }
+
+    @Test
+    void throttledRequestIsCounted()
+    {
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(ProvisionedThroughputExceededException.builder()
+                                         .statusCode(400)
+                                         .message("throttled")
+                                         .build());
+        when(ddbClient.putItem(any(PutItemRequest.class))).thenAnswer(it -> failed);
+
+        StepVerifier.create(rxDynamo.save(PutItemRequest.builder().tableName("table").item(ITEM).build()))
+            .verifyError(ProvisionedThroughputExceededException.class);
+
+        assertThat(registry.get("ddb.requests")
+                       .tags("operation", "PUT", "outcome", "error", "index", "none")
+                       .timer()
+                       .count())
+            .isEqualTo(1);
+        assertThat(registry.get("ddb.throttled").tags("table", "table").counter().count())
+            .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest
+{
+
+    @Test
+    void roundTrip()
+    {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("uid", AttributeValue.builder().s("some/uid+with=chars").build());
+        key.put("range", AttributeValue.builder().n("-12.5").build());
+        key.put("binary", AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[]{1, 2, 3})).build());
+
+        String cursor = PageCursor.encode(key);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(PageCursor.decode(cursor)).isEqualTo(key);
+    }
+
+    @Test
+    void noKeyMeansNoCursor()
+    {
+        assertThat(PageCursor.encode(null)).isNull();
+        assertThat(PageCursor.encode(Collections.emptyMap())).isNull();
+        assertThat(PageCursor.decode(null)).isNull();
+    }
+
+    @Test
+    void malformedCursor()
+    {
+        assertThatThrownBy(() -> PageCursor.decode("not a cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode("AAAAAQ"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
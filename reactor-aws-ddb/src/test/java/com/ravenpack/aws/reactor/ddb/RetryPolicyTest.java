@@ -0,0 +1,159 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetryPolicyTest
+{
+    private static final PutItemRequest PUT = PutItemRequest.builder()
+        .tableName("table")
+        .item(Collections.singletonMap("uid", AttributeValue.builder().s("uid").build()))
+        .build();
+
+    @Mock
+    private DynamoDbAsyncClient ddbClient;
+
+    @Test
+    void throttledRequestIsRetried()
+    {
+        when(ddbClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(failed(throttled()))
+            .thenReturn(failed(throttled()))
+            .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+
+        RxDynamo rxDynamo = new RxDynamoImpl(ddbClient).withRetryPolicy(RetryPolicy.builder()
+                                                                            .baseBackoff(Duration.ofMillis(1))
+                                                                            .maxBackoff(Duration.ofMillis(5))
+                                                                            .build());
+
+        StepVerifier.create(rxDynamo.save(PUT))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        verify(ddbClient, times(3)).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void clientErrorIsNotRetried()
+    {
+        when(ddbClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(failed(ConditionalCheckFailedException.builder().statusCode(400).build()));
+
+        RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+        StepVerifier.create(rxDynamo.save(PUT))
+            .verifyError(ConditionalCheckFailedException.class);
+
+        verify(ddbClient, times(1)).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void retriesAreLimitedByBudget()
+    {
+        when(ddbClient.putItem(any(PutItemRequest.class))).thenAnswer(it -> failed(throttled()));
+
+        RxDynamo rxDynamo = new RxDynamoImpl(ddbClient).withRetryPolicy(RetryPolicy.builder()
+                                                                            .maxRetries(1000)
+                                                                            .retryRatio(0.0)
+                                                                            .baseBackoff(Duration.ZERO)
+                                                                            .maxBackoff(Duration.ZERO)
+                                                                            .circuitThreshold(0)
+                                                                            .build());
+
+        StepVerifier.create(rxDynamo.save(PUT))
+            .verifyError(ProvisionedThroughputExceededException.class);
+
+        verify(ddbClient, times(101)).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void circuitOpensOnThrottledTable()
+    {
+        when(ddbClient.putItem(any(PutItemRequest.class))).thenAnswer(it -> failed(throttled()));
+
+        RxDynamo rxDynamo = new RxDynamoImpl(ddbClient).withRetryPolicy(RetryPolicy.builder()
+                                                                            .maxRetries(0)
+                                                                            .circuitThreshold(2)
+                                                                            .circuitOpenFor(Duration.ofMinutes(1))
+                                                                            .build());
+
+        StepVerifier.create(rxDynamo.save(PUT)).verifyError(ProvisionedThroughputExceededException.class);
+        StepVerifier.create(rxDynamo.save(PUT)).verifyError(ProvisionedThroughputExceededException.class);
+        reset(ddbClient);
+
+        StepVerifier.create(rxDynamo.save(PUT))
+            .verifyErrorSatisfies(e -> assertThat(e)
+                .isInstanceOf(CircuitOpenException.class)
+                .hasFieldOrPropertyWithValue("tableName", "table"));
+
+        verify(ddbClient, never()).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void throttledRequestIsNotRetriedByDefault()
+    {
+        when(ddbClient.putItem(any(PutItemRequest.class))).thenReturn(failed(throttled()));
+
+        RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+        StepVerifier.create(rxDynamo.save(PUT))
+            .verifyError(ProvisionedThroughputExceededException.class);
+
+        verify(ddbClient, times(1)).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void noRetriesNorCircuitsSendRequestAsIs()
+    {
+        Mono<PutItemResponse> request = Mono.just(PutItemResponse.builder().build());
+
+        assertThat(RetryPolicy.NONE.execute(Collections.singleton("table"), request)).isSameAs(request);
+    }
+
+    @Test
+    void maxBackoffShorterThanBaseIsRejected()
+    {
+        assertThatThrownBy(() -> RetryPolicy.builder()
+            .baseBackoff(Duration.ofSeconds(1))
+            .maxBackoff(Duration.ofMillis(100))
+            .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ProvisionedThroughputExceededException throttled()
+    {
+        return ProvisionedThroughputExceededException.builder().statusCode(400).message("throttled").build();
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+}
@@ -0,0 +1,262 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RxDynamoImplTest
+{
+    private static final Map<String, AttributeValue> KEY =
+        Collections.singletonMap("uid", AttributeValue.builder().s("uid").build());
+
+    @Mock
+    private DynamoDbAsyncClient ddbClient;
+
+    private RxDynamo rxDynamo;
+
+    @BeforeEach
+    void prepare()
+    {
+        rxDynamo = new RxDynamoImpl(ddbClient);
+    }
+
+    @Test
+    void concurrentGetsShareOneCall()
+    {
+        CompletableFuture<GetItemResponse> response = new CompletableFuture<>();
+        when(ddbClient.getItem(any(GetItemRequest.class))).thenReturn(response);
+
+        GetItemRequest request = GetItemRequest.builder().tableName("table").key(KEY).build();
+
+        StepVerifier.create(Flux.range(0, 1000)
+                                .flatMap(it -> rxDynamo.get(request), 1000)
+                                .count())
+            .then(() -> response.complete(GetItemResponse.builder().item(KEY).build()))
+            .expectNext(1000L)
+            .verifyComplete();
+
+        verify(ddbClient, times(1)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void getIsRepeatedOnceCompleted()
+    {
+        when(ddbClient.getItem(any(GetItemRequest.class)))
+            .thenAnswer(it -> CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+
+        GetItemRequest request = GetItemRequest.builder().tableName("table").key(KEY).build();
+
+        StepVerifier.create(rxDynamo.get(request)).verifyComplete();
+        StepVerifier.create(rxDynamo.get(request)).verifyComplete();
+
+        verify(ddbClient, times(2)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void countAddsUpPagesWithoutReadingItems()
+    {
+        when(ddbClient.query(any(QueryRequest.class))).thenAnswer(it -> {
+            QueryRequest request = it.getArgument(0);
+            assertThat(request.select()).isEqualTo(Select.COUNT);
+            assertThat(request.projectionExpression()).isNull();
+
+            QueryResponse response = request.exclusiveStartKey().isEmpty()
+                ? QueryResponse.builder().count(3).lastEvaluatedKey(KEY).build()
+                : QueryResponse.builder().count(2).build();
+            return CompletableFuture.completedFuture(response);
+        });
+
+        DynamoSearch search = DynamoSearch.builder()
+            .tableName("table")
+            .keyConditions(Collections.singletonMap("uid", Condition.builder()
+                .comparisonOperator(ComparisonOperator.EQ)
+                .attributeValueList(KEY.get("uid"))
+                .build()))
+            .attributeNames(Collections.singletonList("uid"))
+            .build();
+
+        StepVerifier.create(rxDynamo.count(search))
+            .expectNext(5L)
+            .verifyComplete();
+    }
+
+    @Test
+    void firstItemsAreTakenFromOneSmallPage()
+    {
+        List<Integer> limits = new ArrayList<>();
+        when(ddbClient.query(any(QueryRequest.class))).thenAnswer(it -> {
+            QueryRequest request = it.getArgument(0);
+            limits.add(request.limit());
+
+            return CompletableFuture.completedFuture(QueryResponse.builder()
+                                                         .items(Collections.nCopies(request.limit(), KEY))
+                                                         .lastEvaluatedKey(KEY)
+                                                         .build());
+        });
+
+        StepVerifier.create(rxDynamo.search(searchByKey()).take(10))
+            .expectNextCount(10)
+            .verifyComplete();
+
+        assertThat(limits).containsExactly(Paginator.FIRST_PAGE_LIMIT);
+    }
+
+    @Test
+    void pagesGrowWhileItemsAreRead()
+    {
+        List<Integer> limits = new ArrayList<>();
+        when(ddbClient.query(any(QueryRequest.class))).thenAnswer(it -> {
+            QueryRequest request = it.getArgument(0);
+            limits.add(request.limit());
+
+            QueryResponse.Builder response = QueryResponse.builder()
+                .items(Collections.nCopies(Math.min(request.limit(), 100), KEY));
+            return CompletableFuture.completedFuture(
+                limits.size() < 4 ? response.lastEvaluatedKey(KEY).build() : response.build());
+        });
+
+        StepVerifier.create(rxDynamo.search(searchByKey()))
+            .expectNextCount(16 + 32 + 64 + 100)
+            .verifyComplete();
+
+        assertThat(limits).containsExactly(16, 32, 64, 128);
+    }
+
+    @Test
+    void pagesOfInKeyConditionGoThroughEveryValue()
+    {
+        when(ddbClient.query(any(QueryRequest.class))).thenAnswer(it -> {
+            QueryRequest request = it.getArgument(0);
+            assertThat(request.keyConditionExpression()).doesNotContain("IN");
+
+            String uid = request.expressionAttributeValues().get(":k0_0").s();
+            int size = "a".equals(uid) ? 3 : 2;
+            int from = Optional.ofNullable(request.exclusiveStartKey().get("range"))
+                .map(key -> Integer.parseInt(key.n()) + 1)
+                .orElse(0);
+            int to = Math.min(size, from + request.limit());
+
+            List<Map<String, AttributeValue>> items = IntStream.range(from, to)
+                .mapToObj(range -> item(uid, range))
+                .collect(Collectors.toList());
+            QueryResponse.Builder response = QueryResponse.builder().items(items);
+            return CompletableFuture.completedFuture(
+                to < size ? response.lastEvaluatedKey(item(uid, to - 1)).build() : response.build());
+        });
+
+        DynamoSearch search = DynamoSearch.builder()
+            .tableName("table")
+            .keyConditions(Collections.singletonMap("uid", Condition.builder()
+                .comparisonOperator(ComparisonOperator.IN)
+                .attributeValueList(AttributeValue.builder().s("a").build(), AttributeValue.builder().s("b").build())
+                .build()))
+            .build();
+
+        StepVerifier.create(rxDynamo.searchPages(search, 2).map(Page::getItems))
+            .expectNext(Arrays.asList(item("a", 0), item("a", 1)))
+            .expectNext(Arrays.asList(item("a", 2), item("b", 0)))
+            .expectNext(Collections.singletonList(item("b", 1)))
+            .verifyComplete();
+
+        String cursor = rxDynamo.searchPage(search, null, 2).map(Page::getCursor).block();
+        StepVerifier.create(rxDynamo.searchPage(search, cursor, 2))
+            .assertNext(it -> {
+                assertThat(it.getItems()).containsExactly(item("a", 2), item("b", 0));
+                assertThat(it.getCursor()).isNotNull();
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void orderedMergeBoundsQueriesInFlight()
+    {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(ddbClient.query(any(QueryRequest.class))).thenAnswer(it -> {
+            QueryRequest request = it.getArgument(0);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+            String uid = request.expressionAttributeValues().get(":k0_0").s();
+            return Mono.delay(Duration.ofMillis(2))
+                .map(tick -> {
+                    inFlight.decrementAndGet();
+                    return QueryResponse.builder().items(item(uid, Integer.parseInt(uid))).build();
+                })
+                .toFuture();
+        });
+
+        DynamoSearch search = DynamoSearch.builder()
+            .tableName("table")
+            .keyConditions(Collections.singletonMap("uid", Condition.builder()
+                .comparisonOperator(ComparisonOperator.IN)
+                .attributeValueList(IntStream.range(0, 100)
+                                        .mapToObj(it -> AttributeValue.builder().s(Integer.toString(it)).build())
+                                        .collect(Collectors.toList()))
+                .build()))
+            .build();
+
+        StepVerifier.create(rxDynamo.searchOrdered(search, "range").map(it -> Integer.parseInt(it.get("range").n())))
+            .expectNextSequence(IntStream.range(0, 100).boxed().collect(Collectors.toList()))
+            .verifyComplete();
+        assertThat(maxInFlight.get()).isBetween(1, RxDynamoImpl.MAX_QUERIES_IN_FLIGHT);
+
+        maxInFlight.set(0);
+        StepVerifier.create(rxDynamo.parallelQuery(search, "range", Collections.emptyList(), 3))
+            .expectNextCount(100)
+            .verifyComplete();
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+    }
+
+    private static Map<String, AttributeValue> item(String uid, int range)
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("uid", AttributeValue.builder().s(uid).build());
+        item.put("range", AttributeValue.builder().n(Integer.toString(range)).build());
+        return item;
+    }
+
+    private static DynamoSearch searchByKey()
+    {
+        return DynamoSearch.builder()
+            .tableName("table")
+            .keyConditions(Collections.singletonMap("uid", Condition.builder()
+                .comparisonOperator(ComparisonOperator.EQ)
+                .attributeValueList(KEY.get("uid"))
+                .build()))
+            .build();
+    }
+}
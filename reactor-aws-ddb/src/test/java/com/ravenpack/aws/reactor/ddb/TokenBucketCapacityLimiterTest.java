@@ -0,0 +1,62 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import com.ravenpack.aws.reactor.ddb.CapacityLimiter.CapacityType;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketCapacityLimiterTest
+{
+
+    private final CapacityLimiter limiter = TokenBucketCapacityLimiter.builder()
+        .readLimit("limited", 10.0)
+        .build();
+
+    @Test
+    void tableWithoutLimitIsNotThrottled()
+    {
+        limiter.consumed(CapacityType.READ, consumed("unlimited", 1000.0));
+
+        StepVerifier.create(limiter.acquire("unlimited", CapacityType.READ))
+            .expectComplete()
+            .verify(Duration.ofMillis(100));
+    }
+
+    @Test
+    void writesAreNotThrottledByReadLimit()
+    {
+        limiter.consumed(CapacityType.READ, consumed("limited", 1000.0));
+
+        StepVerifier.create(limiter.acquire("limited", CapacityType.WRITE))
+            .expectComplete()
+            .verify(Duration.ofMillis(100));
+    }
+
+    @Test
+    void debtDelaysNextRequest()
+    {
+        StepVerifier.create(limiter.acquire("limited", CapacityType.READ))
+            .expectComplete()
+            .verify(Duration.ofMillis(100));
+
+        limiter.consumed(CapacityType.READ, consumed("limited", 15.0));
+
+        Duration waited = StepVerifier.create(limiter.acquire("limited", CapacityType.READ))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        assertThat(waited).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+    }
+
+    private static ConsumedCapacity consumed(String tableName, double units)
+    {
+        return ConsumedCapacity.builder()
+            .tableName(tableName)
+            .capacityUnits(units)
+            .build();
+    }
+}
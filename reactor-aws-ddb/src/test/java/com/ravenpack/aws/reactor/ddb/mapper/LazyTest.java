@@ -0,0 +1,39 @@
+package com.ravenpack.aws.reactor.ddb.mapper;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyTest
+{
+    private static final AttributeValue RAW = AttributeValue.builder().s("raw").build();
+
+    @Test
+    void exportKeepsAttributeUntilDecoded()
+    {
+        AtomicInteger decodings = new AtomicInteger();
+        Lazy<String> lazy = Lazy.decoding(RAW, it -> {
+            decodings.incrementAndGet();
+            return it.s().toUpperCase();
+        });
+
+        assertThat(lazy.export(it -> AttributeValue.builder().s(it).build())).isSameAs(RAW);
+        assertThat(decodings.get()).isZero();
+
+        assertThat(lazy.get()).isEqualTo("RAW");
+        assertThat(lazy.get()).isEqualTo("RAW");
+        assertThat(decodings.get()).isEqualTo(1);
+
+        assertThat(lazy.export(it -> AttributeValue.builder().s(it).build()))
+            .isEqualTo(AttributeValue.builder().s("RAW").build());
+    }
+
+    @Test
+    void equalsComparesDecodedValues()
+    {
+        assertThat(Lazy.decoding(RAW, AttributeValue::s)).isEqualTo(Lazy.of("raw"));
+    }
+}
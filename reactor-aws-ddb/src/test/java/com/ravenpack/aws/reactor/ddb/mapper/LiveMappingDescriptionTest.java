@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -83,6 +84,137 @@ class LiveMappingDescriptionTest
 
     }
 
+    @Test
+    void projectionSkipsOtherAttributes()
+    {
+        FieldMappingDescription<TestBean> d = new FieldMappingDescription<>("a", true,
+            (bean, value) -> bean.withStringProperty(value.s()),
+            value -> Optional.of(AttributeValue.builder().s(value.getStringProperty()).build()));
+
+        FieldMappingDescription<TestBean> d2 = new FieldMappingDescription<>("b", false,
+            (bean, value) -> bean.withIntegerProperty(Integer.valueOf(value.n())),
+            value -> Optional.of(AttributeValue.builder().n(value.getIntegerProperty().toString()).build()));
+
+        LiveMappingDescription<TestBean> dynamoObjectMapper = new LiveMappingDescription<>(TestBean::new,
+            Arrays.asList(d, d2));
+
+        TestBean example = TestBean.builder()
+            .stringProperty("string")
+            .integerProperty(420)
+            .build();
+
+        assertThat(dynamoObjectMapper.project(Collections.singletonList("a"))
+                       .transform(dynamoObjectMapper.export(example)))
+            .isEqualTo(example.withIntegerProperty(null));
+    }
+
+    @Test
+    void builderHydratesAllAttributes()
+    {
+        FieldMappingDescription<TestBean> d = FieldMappingDescription.builderField("a", true,
+            (TestBean.TestBeanBuilder builder, AttributeValue value) -> builder.stringProperty(value.s()),
+            value -> Optional.of(AttributeValue.builder().s(value.getStringProperty()).build()),
+            false);
+
+        FieldMappingDescription<TestBean> d2 = FieldMappingDescription.builderField("b", false,
+            (TestBean.TestBeanBuilder builder, AttributeValue value) ->
+                builder.integerProperty(Integer.valueOf(value.n())),
+            value -> Optional.ofNullable(value.getIntegerProperty())
+                .map(it -> AttributeValue.builder().n(it.toString()).build()),
+            false);
+
+        LiveMappingDescription<TestBean> dynamoObjectMapper = new LiveMappingDescription<>(TestBean::builder,
+            TestBean.TestBeanBuilder::build, Arrays.asList(d, d2));
+
+        TestBean example = TestBean.builder()
+            .stringProperty("string")
+            .integerProperty(420)
+            .build();
+
+        assertThat(dynamoObjectMapper.transform(dynamoObjectMapper.export(example)))
+            .isEqualTo(example);
+        assertThat(dynamoObjectMapper.project(Collections.singletonList("a"))
+                       .transform(dynamoObjectMapper.export(example)))
+            .isEqualTo(example.withIntegerProperty(null));
+    }
+
+    @Test
+    void updateExpressionSetsNonKeyAttributes()
+    {
+        FieldMappingDescription<TestBean> d = new FieldMappingDescription<>("a", true,
+            (bean, value) -> bean.withStringProperty(value.s()),
+            value -> Optional.of(AttributeValue.builder().s(value.getStringProperty()).build()));
+
+        FieldMappingDescription<TestBean> d2 = new FieldMappingDescription<>("b", false,
+            (bean, value) -> bean.withIntegerProperty(Integer.valueOf(value.n())),
+            value -> Optional.of(AttributeValue.builder().n(value.getIntegerProperty().toString()).build()));
+
+        LiveMappingDescription<TestBean> dynamoObjectMapper = new LiveMappingDescription<>(TestBean::new,
+            Arrays.asList(d, d2));
+
+        Update update = dynamoObjectMapper.exportUpdateExpression(TestBean.builder()
+                                                                      .stringProperty("string")
+                                                                      .integerProperty(420)
+                                                                      .build());
+
+        assertThat(update.updateExpression()).isEqualTo("SET #f0 = :f0");
+        assertThat(update.expressionAttributeNames()).isEqualTo(Collections.singletonMap("#f0", "b"));
+        assertThat(update.expressionAttributeValues())
+            .isEqualTo(Collections.singletonMap(":f0", AttributeValue.builder().n("420").build()));
+        assertThat(update.key())
+            .isEqualTo(Collections.singletonMap("a", AttributeValue.builder().s("string").build()));
+    }
+
+    @Test
+    void updateExpressionContainsOnlyDifferences()
+    {
+        FieldMappingDescription<TestBean> d = new FieldMappingDescription<>("a", true,
+            (bean, value) -> bean.withStringProperty(value.s()),
+            value -> Optional.of(AttributeValue.builder().s(value.getStringProperty()).build()));
+
+        FieldMappingDescription<TestBean> d2 = new FieldMappingDescription<>("b", false,
+            (bean, value) -> bean.withIntegerProperty(Integer.valueOf(value.n())),
+            value -> Optional.ofNullable(value.getIntegerProperty())
+                .map(it -> AttributeValue.builder().n(it.toString()).build()),
+            true);
+
+        FieldMappingDescription<TestBean> d3 = new FieldMappingDescription<>("c", false,
+            (bean, value) -> bean.withDoubleProperty(Double.valueOf(value.n())),
+            value -> Optional.ofNullable(value.getDoubleProperty())
+                .map(it -> AttributeValue.builder().n(it.toString()).build()));
+
+        FieldMappingDescription<TestBean> d4 = new FieldMappingDescription<>("d", false,
+            (bean, value) -> bean.withListStringProperty(value.ss()),
+            value -> Optional.ofNullable(value.getListStringProperty())
+                .map(it -> AttributeValue.builder().ss(it).build()));
+
+        LiveMappingDescription<TestBean> dynamoObjectMapper = new LiveMappingDescription<>(TestBean::new,
+            Arrays.asList(d, d2, d3, d4));
+
+        TestBean old = TestBean.builder()
+            .stringProperty("string")
+            .integerProperty(420)
+            .doubleProperty(4.20)
+            .listStringProperty(Collections.singletonList("A"))
+            .build();
+
+        assertThat(dynamoObjectMapper.exportUpdateExpression(old, old)).isEmpty();
+
+        Update update = dynamoObjectMapper.exportUpdateExpression(old, old.withIntegerProperty(425)
+                .withListStringProperty(null))
+            .orElseThrow(IllegalStateException::new);
+
+        assertThat(update.updateExpression()).isEqualTo("REMOVE #f1 ADD #f0 :f0");
+        assertThat(update.expressionAttributeValues())
+            .isEqualTo(Collections.singletonMap(":f0", AttributeValue.builder().n("5").build()));
+
+        Update set = dynamoObjectMapper.exportUpdateExpression(old, old.withDoubleProperty(4.25))
+            .orElseThrow(IllegalStateException::new);
+
+        assertThat(set.updateExpression()).isEqualTo("SET #f0 = :f0");
+        assertThat(set.expressionAttributeNames()).isEqualTo(Collections.singletonMap("#f0", "c"));
+    }
+
     @Test
     void sunnyDayOnlyWithSimpleString()
     {
@@ -0,0 +1,38 @@
+package com.ravenpack.aws.reactor.ddb.mapper;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedKeysTest
+{
+    @Test
+    void shardIsStableAndReversible()
+    {
+        AttributeValue rangeKey = AttributeValue.builder().s("2020-01-01").build();
+        String stored = ShardedKeys.shard("user#1", rangeKey, 16);
+
+        assertThat(stored).isEqualTo(ShardedKeys.shard("user#1", rangeKey, 16));
+        assertThat(stored).startsWith("user#1#");
+        assertThat(ShardedKeys.unshard(stored)).isEqualTo("user#1");
+    }
+
+    @Test
+    void everyShardIsListed()
+    {
+        String stored = ShardedKeys.shard("user", AttributeValue.builder().n("42").build(), 4);
+
+        assertThat(ShardedKeys.shards("user", 4))
+            .hasSize(4)
+            .anyMatch(it -> stored.equals(it.s()));
+    }
+
+    @Test
+    void shardFollowsTheStoredRangeKey()
+    {
+        assertThat(ShardedKeys.shard("user", AttributeValue.builder().n("42").build(), 16))
+            .isEqualTo(ShardedKeys.shard("user", AttributeValue.builder().s("42").build(), 16))
+            .isEqualTo("user#" + Math.floorMod("42".hashCode(), 16));
+    }
+}
@@ -0,0 +1,466 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.NonNull;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.TableStatus;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link RxDynamo} keeping its tables in memory, in sorted concurrent maps, for tests and benchmarks which should
+ * not depend on DynamoDB, Localstack or the network. It is published in the test fixtures of this module:
+ * <pre>
+ * testImplementation(testFixtures(project(":reactor-aws-ddb")))
+ *
+ * RxDynamo rxDynamo = new InMemoryRxDynamo();
+ * rxDynamo.createTable(repository.createTable()).block();
+ * </pre>
+ * <b>Not supported</b>, failing with {@link UnsupportedOperationException} rather than being ignored:
+ * <ul>
+ * <li>filter expressions given as text, see {@link DynamoSearch#getFilterExpression()};</li>
+ * <li>conditional writes: condition expressions and expected values of puts, updates, deletes and transactions;</li>
+ * <li>{@code ConditionCheck} items of transactions;</li>
+ * <li>return values other than {@code NONE}, {@code ALL_OLD} and {@code ALL_NEW}.</li>
+ * </ul>
+ * Neither is capacity accounted, nor are pages limited to 1 MB, and {@code parallelQuery} just calls
+ * {@link #search(DynamoSearch)}, so it is no test of splitting a query.
+ * <p>
+ * Tables have the hash and range keys, local and global secondary indexes of their {@link CreateTableRequest}.
+ * Searches support all of the {@code Condition} operators of key and filter conditions, exclusive start keys and
+ * page cursors; items come in key order, as from DynamoDB. Updates are applied as described by
+ * {@link InMemoryUpdates}. Reads never block. Writes are serialized, and secondary indexes are updated right after
+ * the item, so they are only briefly behind the table.
+ */
+@Slf4j
+public class InMemoryRxDynamo implements RxDynamo
+{
+    private static final AttributeValueComparator VALUES = new AttributeValueComparator();
+
+    private final Map<String, InMemoryTable> tables = new ConcurrentHashMap<>();
+
+    @Override
+    public Flux<Map<String, AttributeValue>> scan(@NonNull DynamoSearch dynamoSearch)
+    {
+        return search(dynamoSearch.withKeyConditions(Collections.emptyMap()));
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelScan(
+        @NonNull DynamoSearch dynamoSearch,
+        int totalSegments,
+        int maxConcurrency)
+    {
+        DynamoSearch scan = dynamoSearch.withKeyConditions(Collections.emptyMap());
+
+        return Flux.range(0, totalSegments)
+            .flatMap(segment -> items(scan)
+                .filter(it -> table(scan.getTableName()).segment(it, totalSegments) == segment)
+                .map(it -> InMemoryTable.project(it, scan.getAttributeNames())), maxConcurrency);
+    }
+
+    @Override
+    public Flux<Map<String, AttributeValue>> search(@NonNull DynamoSearch dynamoSearch)
+    {
+        return items(dynamoSearch).map(it -> InMemoryTable.project(it, dynamoSearch.getAttributeNames()));
+    }
+
+    /**
+     * Items of the other hash keys of an IN condition are sorted once all of them are read.
+     */
+    @Override
+    public Flux<Map<String, AttributeValue>> searchOrdered(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute)
+    {
+        boolean fanOut = dynamoSearch.getKeyConditions()
+            .values()
+            .stream()
+            .anyMatch(it -> it.comparisonOperator() == ComparisonOperator.IN);
+
+        Flux<Map<String, AttributeValue>> items = items(dynamoSearch);
+        Comparator<Map<String, AttributeValue>> byRangeKey =
+            Comparator.comparing(it -> it.get(rangeKeyAttribute), Comparator.nullsFirst(VALUES));
+
+        return (fanOut ? items.sort(byRangeKey) : items)
+            .map(it -> InMemoryTable.project(it, dynamoSearch.getAttributeNames()));
+    }
+
+    /**
+     * The items are already in memory, so they are read in a single pass.
+     */
+    @Override
+    public Flux<Map<String, AttributeValue>> parallelQuery(
+        @NonNull DynamoSearch dynamoSearch,
+        @NonNull String rangeKeyAttribute,
+        @NonNull List<AttributeValue> splitPoints,
+        int maxConcurrency)
+    {
+        return search(dynamoSearch);
+    }
+
+    @Override
+    public Mono<Page<Map<String, AttributeValue>>> searchPage(
+        @NonNull DynamoSearch dynamoSearch,
+        String cursor,
+        int limit)
+    {
+        return page(dynamoSearch.withExclusiveStartKey(PageCursor.decode(cursor)), limit);
+    }
+
+    @Override
+    public Flux<Page<Map<String, AttributeValue>>> searchPages(@NonNull DynamoSearch dynamoSearch, int pageSize)
+    {
+        return page(dynamoSearch, pageSize)
+            .expand(page -> Optional.of(page)
+                .filter(Page::hasNext)
+                .map(it -> page(dynamoSearch.withExclusiveStartKey(it.getLastEvaluatedKey()), pageSize))
+                .orElseGet(Mono::empty));
+    }
+
+    /**
+     * Up to {@code limit} matching items, with the key of the last one when more items are left to evaluate.
+     */
+    private Mono<Page<Map<String, AttributeValue>>> page(DynamoSearch dynamoSearch, int limit)
+    {
+        return Mono.fromCallable(() -> {
+            InMemoryTable table = table(dynamoSearch.getTableName());
+            checkSupported(dynamoSearch);
+
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            Iterator<Map<String, AttributeValue>> candidates = table.candidates(dynamoSearch).iterator();
+            Map<String, AttributeValue> last = null;
+            while (items.size() < limit && candidates.hasNext()) {
+                last = candidates.next();
+                if (InMemoryTable.matches(last, dynamoSearch.getFilterConditions())) {
+                    items.add(InMemoryTable.project(last, dynamoSearch.getAttributeNames()));
+                }
+            }
+
+            Map<String, AttributeValue> lastEvaluatedKey = null != last && candidates.hasNext()
+                ? table.lastEvaluatedKey(dynamoSearch.getIndexName(), last)
+                : null;
+            return new Page<>(items, lastEvaluatedKey);
+        });
+    }
+
+    @Override
+    public Mono<Long> count(@NonNull DynamoSearch dynamoSearch)
+    {
+        return items(dynamoSearch).count();
+    }
+
+    @Override
+    public Mono<Long> parallelCount(@NonNull DynamoSearch dynamoSearch, int totalSegments, int maxConcurrency)
+    {
+        return items(dynamoSearch.withKeyConditions(Collections.emptyMap())).count();
+    }
+
+    @Override
+    public Mono<Boolean> exists(@NonNull DynamoSearch dynamoSearch)
+    {
+        return items(dynamoSearch).hasElements();
+    }
+
+    /**
+     * Matching items of the search, in key order and not projected yet.
+     */
+    private Flux<Map<String, AttributeValue>> items(DynamoSearch dynamoSearch)
+    {
+        return Flux.defer(() -> {
+            InMemoryTable table = table(dynamoSearch.getTableName());
+            checkSupported(dynamoSearch);
+
+            return Flux.fromStream(table.candidates(dynamoSearch)
+                                       .filter(it -> InMemoryTable.matches(it, dynamoSearch.getFilterConditions())));
+        });
+    }
+
+    @Override
+    public Mono<Map<String, AttributeValue>> get(@NonNull GetItemRequest getItemRequest)
+    {
+        return Mono.fromCallable(() -> table(getItemRequest.tableName()).get(getItemRequest.key()))
+            .map(it -> InMemoryTable.project(it, projection(getItemRequest)));
+    }
+
+    @Override
+    public Function<Flux<Map<String, AttributeValue>>, Flux<Map<String, AttributeValue>>> batchGet(
+        @NonNull String tableName)
+    {
+        return keys -> keys.concatMap(key -> get(GetItemRequest.builder().tableName(tableName).key(key).build()));
+    }
+
+    @Override
+    public Function<Flux<WriteRequest>, Flux<WriteRequest>> batchWrite(@NonNull String tableName)
+    {
+        return requests -> requests.concatMap(request -> Mono.fromCallable(() -> {
+            if (null != request.putRequest()) {
+                write(tableName, request.putRequest().item(), request.putRequest().item());
+            } else {
+                write(tableName, request.deleteRequest().key(), null);
+            }
+            return request;
+        }));
+    }
+
+    /**
+     * All of the items are written at once, or none of them when any is invalid. The transaction can not be
+     * cancelled by a condition, as conditions are not supported.
+     */
+    @Override
+    public Mono<Void> transactWrite(@NonNull List<TransactWriteItem> items)
+    {
+        return Mono.fromRunnable(() -> transact(items));
+    }
+
+    @Override
+    public Mono<List<Map<String, AttributeValue>>> transactGet(@NonNull List<TransactGetItem> items)
+    {
+        return Flux.fromIterable(items)
+            .concatMap(it -> get(GetItemRequest.builder()
+                                     .tableName(it.get().tableName())
+                                     .key(it.get().key())
+                                     .projectionExpression(it.get().projectionExpression())
+                                     .expressionAttributeNames(it.get().expressionAttributeNames())
+                                     .build())
+                .defaultIfEmpty(Collections.emptyMap()))
+            .collectList();
+    }
+
+    @Override
+    public Mono<PutItemResponse> save(@NonNull PutItemRequest putItemRequest)
+    {
+        return Mono.fromCallable(() -> {
+            checkUnconditional(putItemRequest.conditionExpression(), putItemRequest.expected());
+            Map<String, AttributeValue> old = write(putItemRequest.tableName(), putItemRequest.item(),
+                                                    putItemRequest.item());
+
+            return PutItemResponse.builder()
+                .attributes(returned(putItemRequest.returnValues(), old, null))
+                .build();
+        });
+    }
+
+    @Override
+    public Mono<UpdateItemResponse> update(@NonNull UpdateItemRequest updateItemRequest)
+    {
+        return Mono.fromCallable(() -> {
+            checkUnconditional(updateItemRequest.conditionExpression(), updateItemRequest.expected());
+
+            return UpdateItemResponse.builder()
+                .attributes(updateItem(updateItemRequest))
+                .build();
+        });
+    }
+
+    @Override
+    public Mono<DeleteItemResponse> delete(@NonNull DeleteItemRequest deleteItemRequest)
+    {
+        return Mono.fromCallable(() -> {
+            checkUnconditional(deleteItemRequest.conditionExpression(), deleteItemRequest.expected());
+            Map<String, AttributeValue> old = write(deleteItemRequest.tableName(), deleteItemRequest.key(), null);
+
+            return DeleteItemResponse.builder()
+                .attributes(returned(deleteItemRequest.returnValues(), old, null))
+                .build();
+        });
+    }
+
+    @Override
+    public Mono<CreateTableResponse> createTable(CreateTableRequest createTableRequest)
+    {
+        return Mono.fromCallable(() -> {
+            InMemoryTable table = new InMemoryTable(createTableRequest);
+            if (null != tables.putIfAbsent(createTableRequest.tableName(), table)) {
+                throw ResourceInUseException.builder()
+                    .message("Table already exists: " + createTableRequest.tableName())
+                    .statusCode(400)
+                    .build();
+            }
+            log.debug("created in memory table {}", createTableRequest.tableName());
+
+            return CreateTableResponse.builder()
+                .tableDescription(TableDescription.builder()
+                                      .tableName(createTableRequest.tableName())
+                                      .keySchema(createTableRequest.keySchema())
+                                      .attributeDefinitions(createTableRequest.attributeDefinitions())
+                                      .tableStatus(TableStatus.ACTIVE)
+                                      .build())
+                .build();
+        });
+    }
+
+    @Override
+    public Mono<DeleteTableResponse> deleteTable(String name)
+    {
+        return Mono.fromCallable(() -> {
+            Optional.ofNullable(tables.remove(name)).orElseThrow(() -> notFound(name));
+
+            return DeleteTableResponse.builder()
+                .tableDescription(TableDescription.builder()
+                                      .tableName(name)
+                                      .tableStatus(TableStatus.DELETING)
+                                      .build())
+                .build();
+        });
+    }
+
+    private InMemoryTable table(String name)
+    {
+        return Optional.ofNullable(tables.get(name)).orElseThrow(() -> notFound(name));
+    }
+
+    private static ResourceNotFoundException notFound(String name)
+    {
+        return (ResourceNotFoundException) ResourceNotFoundException.builder()
+            .message("Cannot do operations on a non-existent table: " + name)
+            .statusCode(400)
+            .build();
+    }
+
+    private synchronized Map<String, AttributeValue> write(
+        String tableName,
+        Map<String, AttributeValue> key,
+        Map<String, AttributeValue> item)
+    {
+        return table(tableName).write(key, item);
+    }
+
+    /**
+     * @return the attributes asked for by the return values of the request
+     */
+    private synchronized Map<String, AttributeValue> updateItem(UpdateItemRequest updateItemRequest)
+    {
+        InMemoryTable table = table(updateItemRequest.tableName());
+        Map<String, AttributeValue> old = table.get(updateItemRequest.key());
+        Map<String, AttributeValue> updated = InMemoryUpdates.apply(
+            Optional.ofNullable(old).orElse(updateItemRequest.key()), updateItemRequest);
+
+        table.write(updateItemRequest.key(), updated);
+        return returned(updateItemRequest.returnValues(), old, updated);
+    }
+
+    /**
+     * Works out every item of the transaction before writing any of them.
+     */
+    private synchronized void transact(List<TransactWriteItem> items)
+    {
+        List<Runnable> writes = new ArrayList<>();
+        Set<List<Object>> keys = new HashSet<>();
+
+        for (TransactWriteItem item : items) {
+            String tableName;
+            Map<String, AttributeValue> key;
+            Map<String, AttributeValue> written;
+
+            if (null != item.put()) {
+                checkUnconditional(item.put().conditionExpression(), Collections.emptyMap());
+                tableName = item.put().tableName();
+                key = item.put().item();
+                written = item.put().item();
+            } else if (null != item.update()) {
+                checkUnconditional(item.update().conditionExpression(), Collections.emptyMap());
+                tableName = item.update().tableName();
+                key = item.update().key();
+                UpdateItemRequest update = UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key)
+                    .updateExpression(item.update().updateExpression())
+                    .expressionAttributeNames(item.update().expressionAttributeNames())
+                    .expressionAttributeValues(item.update().expressionAttributeValues())
+                    .build();
+                written = InMemoryUpdates.apply(Optional.ofNullable(table(tableName).get(key)).orElse(key), update);
+            } else if (null != item.delete()) {
+                checkUnconditional(item.delete().conditionExpression(), Collections.emptyMap());
+                tableName = item.delete().tableName();
+                key = item.delete().key();
+                written = null;
+            } else {
+                throw new UnsupportedOperationException("Condition checks are not supported: " + item);
+            }
+
+            InMemoryTable table = table(tableName);
+            if (!keys.add(Arrays.asList(tableName, table.lastEvaluatedKey(null, key)))) {
+                throw InMemoryTable.invalid("Transaction request cannot include multiple operations on one item");
+            }
+            writes.add(() -> table.write(key, written));
+        }
+        writes.forEach(Runnable::run);
+    }
+
+    private static void checkSupported(DynamoSearch dynamoSearch)
+    {
+        if (null != dynamoSearch.getFilterExpression()) {
+            throw new UnsupportedOperationException("Filter expressions are not supported: "
+                                                        + dynamoSearch.getFilterExpression());
+        }
+    }
+
+    private static void checkUnconditional(String conditionExpression, Map<String, ?> expected)
+    {
+        if (null != conditionExpression || !expected.isEmpty()) {
+            throw new UnsupportedOperationException("Conditional writes are not supported");
+        }
+    }
+
+    private static List<String> projection(GetItemRequest getItemRequest)
+    {
+        if (null != getItemRequest.projectionExpression()) {
+            return Arrays.stream(getItemRequest.projectionExpression().split(","))
+                .map(String::trim)
+                .map(it -> getItemRequest.expressionAttributeNames().getOrDefault(it, it))
+                .collect(Collectors.toList());
+        }
+        return getItemRequest.attributesToGet();
+    }
+
+    private static Map<String, AttributeValue> returned(
+        ReturnValue returnValue,
+        Map<String, AttributeValue> old,
+        Map<String, AttributeValue> updated)
+    {
+        if (null == returnValue || returnValue == ReturnValue.NONE) {
+            return null;
+        }
+        switch (returnValue) {
+            case ALL_OLD:
+                return old;
+            case ALL_NEW:
+                return updated;
+            default:
+                throw new UnsupportedOperationException("Unsupported return values: " + returnValue);
+        }
+    }
+}
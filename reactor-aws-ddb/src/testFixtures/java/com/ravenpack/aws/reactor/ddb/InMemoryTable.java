@@ -0,0 +1,388 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.Value;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
+import software.amazon.awssdk.services.dynamodb.model.Condition;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Items of one table of {@link InMemoryRxDynamo}, in a map sorted by primary key, and in one more sorted map per
+ * secondary index, keyed by the index key followed by the primary key. Items without the key attributes of an
+ * index are left out of it, as in DynamoDB. Reads go through the concurrent maps without locking, writes have to
+ * be serialized by the caller.
+ */
+class InMemoryTable
+{
+    private static final AttributeValueComparator VALUES = new AttributeValueComparator();
+
+    /**
+     * Sorts after any value, to bound the positions starting with a given prefix.
+     */
+    private static final AttributeValue END = AttributeValue.builder().build();
+
+    private final KeySchema primary;
+    private final View table;
+    private final Map<String, View> indexes = new HashMap<>();
+
+    InMemoryTable(CreateTableRequest createTableRequest)
+    {
+        primary = KeySchema.of(createTableRequest.keySchema());
+        table = new View(primary, null);
+        createTableRequest.localSecondaryIndexes()
+            .forEach(it -> indexes.put(it.indexName(), new View(KeySchema.of(it.keySchema()), it.projection())));
+        createTableRequest.globalSecondaryIndexes()
+            .forEach(it -> indexes.put(it.indexName(), new View(KeySchema.of(it.keySchema()), it.projection())));
+    }
+
+    Map<String, AttributeValue> get(Map<String, AttributeValue> key)
+    {
+        return table.getItems().get(primary.position(key));
+    }
+
+    /**
+     * Stores the item under the key, or removes the item of the key when it is null, together with the entries
+     * of the secondary indexes.
+     *
+     * @return the item stored under the key before, null when there was none
+     */
+    Map<String, AttributeValue> write(Map<String, AttributeValue> key, Map<String, AttributeValue> item)
+    {
+        List<AttributeValue> position = primary.position(key);
+        if (null != item && !position.equals(primary.position(item))) {
+            throw invalid("The item does not match its key: " + key);
+        }
+
+        Map<String, AttributeValue> old = null == item
+            ? table.getItems().remove(position)
+            : table.getItems().put(position, Collections.unmodifiableMap(new HashMap<>(item)));
+
+        indexes.values().forEach(index -> {
+            Optional.ofNullable(old).flatMap(it -> indexPosition(index, it)).ifPresent(index.getItems()::remove);
+            Optional.ofNullable(item)
+                .flatMap(it -> indexPosition(index, it))
+                .ifPresent(it -> index.getItems().put(it, project(index, item)));
+        });
+        return old;
+    }
+
+    /**
+     * Items of the table or index, in key order, which match the key conditions and come after the exclusive
+     * start key of the search. An EQ hash key condition, and the bounds of a range key condition, narrow the
+     * items down to a sub map, instead of going through all of them.
+     */
+    Stream<Map<String, AttributeValue>> candidates(DynamoSearch dynamoSearch)
+    {
+        View view = view(dynamoSearch.getIndexName());
+        Map<String, Condition> keyConditions = dynamoSearch.getKeyConditions();
+        NavigableMap<List<AttributeValue>, Map<String, AttributeValue>> items = view.getItems();
+
+        Condition hashCondition = keyConditions.get(view.getSchema().getHashKey());
+        if (null != hashCondition && hashCondition.comparisonOperator() == ComparisonOperator.EQ) {
+            AttributeValue hash = hashCondition.attributeValueList().get(0);
+            KeyRange range = Optional.ofNullable(view.getSchema().getRangeKey())
+                .flatMap(it -> KeyRange.of(keyConditions.get(it)))
+                .orElseGet(() -> new KeyRange(null, false, null, false));
+
+            List<AttributeValue> from = new ArrayList<>(Collections.singletonList(hash));
+            Optional.ofNullable(range.getLower()).ifPresent(from::add);
+            List<AttributeValue> to = new ArrayList<>(Collections.singletonList(hash));
+            Optional.ofNullable(range.getUpper()).ifPresent(to::add);
+            to.add(END);
+
+            items = items.subMap(from, true, to, false);
+        }
+
+        NavigableMap<List<AttributeValue>, Map<String, AttributeValue>> keyed = items;
+        return Optional.ofNullable(dynamoSearch.getExclusiveStartKey())
+            .filter(it -> !it.isEmpty())
+            .map(it -> keyed.tailMap(position(view, it), false))
+            .orElse(keyed)
+            .values()
+            .stream()
+            .filter(it -> matches(it, keyConditions));
+    }
+
+    /**
+     * The key attributes of the item in the table or index, to resume a search after it.
+     */
+    Map<String, AttributeValue> lastEvaluatedKey(String indexName, Map<String, AttributeValue> item)
+    {
+        Map<String, AttributeValue> key = new HashMap<>(primary.key(item));
+        key.putAll(view(indexName).getSchema().key(item));
+        return key;
+    }
+
+    /**
+     * The segment of a parallel scan the item belongs to, by its hash key.
+     */
+    int segment(Map<String, AttributeValue> item, int totalSegments)
+    {
+        return Math.floorMod(item.get(primary.getHashKey()).hashCode(), totalSegments);
+    }
+
+    static boolean matches(Map<String, AttributeValue> item, Map<String, Condition> conditions)
+    {
+        return null == conditions || conditions.entrySet()
+            .stream()
+            .allMatch(it -> matches(item.get(it.getKey()), it.getValue()));
+    }
+
+    /**
+     * Evaluates a condition like DynamoDB does: comparisons between values of different types are false.
+     */
+    static boolean matches(AttributeValue value, Condition condition)
+    {
+        List<AttributeValue> values = condition.attributeValueList();
+        switch (condition.comparisonOperator()) {
+            case NULL:
+                return null == value;
+            case NOT_NULL:
+                return null != value;
+            case NE:
+                return null == value || !same(value, values.get(0));
+            default:
+                break;
+        }
+        if (null == value) {
+            return false;
+        }
+
+        switch (condition.comparisonOperator()) {
+            case EQ:
+                return same(value, values.get(0));
+            case IN:
+                return values.stream().anyMatch(it -> same(value, it));
+            case LE:
+                return comparable(value, values.get(0)) && VALUES.compare(value, values.get(0)) <= 0;
+            case LT:
+                return comparable(value, values.get(0)) && VALUES.compare(value, values.get(0)) < 0;
+            case GE:
+                return comparable(value, values.get(0)) && VALUES.compare(value, values.get(0)) >= 0;
+            case GT:
+                return comparable(value, values.get(0)) && VALUES.compare(value, values.get(0)) > 0;
+            case BETWEEN:
+                return comparable(value, values.get(0)) && comparable(value, values.get(1))
+                    && VALUES.compare(value, values.get(0)) >= 0 && VALUES.compare(value, values.get(1)) <= 0;
+            case BEGINS_WITH:
+                return beginsWith(value, values.get(0));
+            case CONTAINS:
+                return contains(value, values.get(0));
+            case NOT_CONTAINS:
+                return !contains(value, values.get(0));
+            default:
+                throw new IllegalArgumentException(
+                    "Unsupported comparison operator: " + condition.comparisonOperator());
+        }
+    }
+
+    /**
+     * The item with just the given attributes, or the whole item when there are none.
+     */
+    static Map<String, AttributeValue> project(Map<String, AttributeValue> item, List<String> attributeNames)
+    {
+        if (null == attributeNames || attributeNames.isEmpty()) {
+            return item;
+        }
+
+        Map<String, AttributeValue> projected = new HashMap<>();
+        attributeNames.stream()
+            .filter(item::containsKey)
+            .forEach(it -> projected.put(it, item.get(it)));
+        return projected;
+    }
+
+    static DynamoDbException invalid(String message)
+    {
+        return (DynamoDbException) DynamoDbException.builder().message(message).statusCode(400).build();
+    }
+
+    private View view(String indexName)
+    {
+        return Optional.ofNullable(indexName)
+            .map(it -> Optional.ofNullable(indexes.get(it))
+                .orElseThrow(() -> invalid("The table does not have the specified index: " + it)))
+            .orElse(table);
+    }
+
+    private List<AttributeValue> position(View view, Map<String, AttributeValue> key)
+    {
+        if (view == table) {
+            return primary.position(key);
+        }
+        List<AttributeValue> position = new ArrayList<>(view.getSchema().position(key));
+        position.addAll(primary.position(key));
+        return position;
+    }
+
+    private Optional<List<AttributeValue>> indexPosition(View index, Map<String, AttributeValue> item)
+    {
+        return Optional.of(index.getSchema())
+            .filter(it -> item.containsKey(it.getHashKey()))
+            .filter(it -> null == it.getRangeKey() || item.containsKey(it.getRangeKey()))
+            .map(it -> position(index, item));
+    }
+
+    private Map<String, AttributeValue> project(View index, Map<String, AttributeValue> item)
+    {
+        ProjectionType type = Optional.ofNullable(index.getProjection())
+            .map(Projection::projectionType)
+            .orElse(ProjectionType.ALL);
+        if (type == ProjectionType.ALL) {
+            return item;
+        }
+
+        Set<String> attributes = new HashSet<>(primary.key(item).keySet());
+        attributes.addAll(index.getSchema().key(item).keySet());
+        if (type == ProjectionType.INCLUDE) {
+            attributes.addAll(index.getProjection().nonKeyAttributes());
+        }
+        return Collections.unmodifiableMap(project(item, new ArrayList<>(attributes)));
+    }
+
+    private static boolean same(AttributeValue left, AttributeValue right)
+    {
+        return null != left.n() && null != right.n()
+            ? new BigDecimal(left.n()).compareTo(new BigDecimal(right.n())) == 0
+            : left.equals(right);
+    }
+
+    private static boolean comparable(AttributeValue left, AttributeValue right)
+    {
+        return null != left.n() && null != right.n()
+            || null != left.s() && null != right.s()
+            || null != left.b() && null != right.b();
+    }
+
+    private static boolean beginsWith(AttributeValue value, AttributeValue prefix)
+    {
+        if (null != value.s() && null != prefix.s()) {
+            return value.s().startsWith(prefix.s());
+        }
+        if (null != value.b() && null != prefix.b()) {
+            byte[] bytes = value.b().asByteArray();
+            byte[] start = prefix.b().asByteArray();
+            for (int i = 0; i < start.length; i++) {
+                if (i >= bytes.length || bytes[i] != start[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(AttributeValue value, AttributeValue element)
+    {
+        if (null != value.s() && null != element.s()) {
+            return value.s().contains(element.s());
+        }
+        if (!value.ss().isEmpty() && null != element.s()) {
+            return value.ss().contains(element.s());
+        }
+        if (!value.ns().isEmpty() && null != element.n()) {
+            return value.ns().stream().anyMatch(it -> same(AttributeValue.builder().n(it).build(), element));
+        }
+        if (!value.bs().isEmpty() && null != element.b()) {
+            return value.bs().contains(element.b());
+        }
+        return value.l().stream().anyMatch(it -> same(it, element));
+    }
+
+    /**
+     * Orders positions element by element, a missing range key first and {@link #END} last, and a position
+     * before all the longer ones it is a prefix of.
+     */
+    private static int comparePositions(List<AttributeValue> left, List<AttributeValue> right)
+    {
+        for (int i = 0; i < Math.min(left.size(), right.size()); i++) {
+            int compared = compareValues(left.get(i), right.get(i));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return Integer.compare(left.size(), right.size());
+    }
+
+    private static int compareValues(AttributeValue left, AttributeValue right)
+    {
+        if (left == right) {
+            return 0;
+        }
+        if (null == left || END == right) {
+            return -1;
+        }
+        if (null == right || END == left) {
+            return 1;
+        }
+        return VALUES.compare(left, right);
+    }
+
+    @Value
+    private static class View
+    {
+        KeySchema schema;
+        Projection projection;
+        ConcurrentSkipListMap<List<AttributeValue>, Map<String, AttributeValue>> items =
+            new ConcurrentSkipListMap<>(InMemoryTable::comparePositions);
+    }
+
+    @Value
+    private static class KeySchema
+    {
+        String hashKey;
+        String rangeKey;
+
+        static KeySchema of(List<KeySchemaElement> elements)
+        {
+            return new KeySchema(
+                elements.stream().filter(it -> it.keyType() == KeyType.HASH).findFirst()
+                    .map(KeySchemaElement::attributeName)
+                    .orElseThrow(() -> invalid("No hash key in " + elements)),
+                elements.stream().filter(it -> it.keyType() == KeyType.RANGE).findFirst()
+                    .map(KeySchemaElement::attributeName)
+                    .orElse(null));
+        }
+
+        /**
+         * The key values of the item, hash key first.
+         */
+        List<AttributeValue> position(Map<String, AttributeValue> item)
+        {
+            List<AttributeValue> position = new ArrayList<>(2);
+            position.add(Optional.ofNullable(item.get(hashKey))
+                             .orElseThrow(() -> invalid("Missing the key attribute " + hashKey)));
+            Optional.ofNullable(rangeKey)
+                .map(it -> Optional.ofNullable(item.get(it))
+                    .orElseThrow(() -> invalid("Missing the key attribute " + it)))
+                .ifPresent(position::add);
+            return position;
+        }
+
+        Map<String, AttributeValue> key(Map<String, AttributeValue> item)
+        {
+            Map<String, AttributeValue> key = new HashMap<>();
+            key.put(hashKey, item.get(hashKey));
+            Optional.ofNullable(rangeKey).ifPresent(it -> key.put(it, item.get(it)));
+            return key;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.ravenpack.aws.reactor.ddb;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeAction;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValueUpdate;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the updates of an {@link UpdateItemRequest} to an item of {@link InMemoryRxDynamo}: either the attribute
+ * updates, or an update expression of SET, REMOVE, ADD and DELETE actions on top level attributes, which is what
+ * the mappers write. SET takes a value, an attribute, or the sum or difference of two of them; functions and
+ * nested paths are not supported.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class InMemoryUpdates
+{
+    private static final Pattern CLAUSE = Pattern.compile("(?i)\\b(SET|REMOVE|ADD|DELETE)\\s+");
+    private static final Pattern SET =
+        Pattern.compile("\\s*([^\\s=]+)\\s*=\\s*([^\\s+-]+)\\s*(?:([+-])\\s*(\\S+))?\\s*");
+    private static final Pattern OPERAND = Pattern.compile("[#:]?[A-Za-z0-9_]+");
+
+    static Map<String, AttributeValue> apply(Map<String, AttributeValue> item, UpdateItemRequest request)
+    {
+        Map<String, AttributeValue> updated = new HashMap<>(item);
+        if (null != request.updateExpression()) {
+            applyExpression(updated, request);
+        } else {
+            request.attributeUpdates().forEach((name, update) -> applyUpdate(updated, name, update));
+        }
+        return updated;
+    }
+
+    private static void applyUpdate(Map<String, AttributeValue> item, String name, AttributeValueUpdate update)
+    {
+        AttributeAction action = Optional.ofNullable(update.action()).orElse(AttributeAction.PUT);
+        switch (action) {
+            case PUT:
+                item.put(name, Optional.ofNullable(update.value())
+                    .orElseThrow(() -> InMemoryTable.invalid("No value to PUT into " + name)));
+                break;
+            case ADD:
+                item.put(name, add(item.get(name), update.value()));
+                break;
+            case DELETE:
+                AttributeValue remaining = Optional.ofNullable(update.value())
+                    .map(it -> remove(item.get(name), it))
+                    .orElse(null);
+                if (null == remaining) {
+                    item.remove(name);
+                } else {
+                    item.put(name, remaining);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported attribute action: " + action);
+        }
+    }
+
+    private static void applyExpression(Map<String, AttributeValue> item, UpdateItemRequest request)
+    {
+        String expression = request.updateExpression().trim();
+        Matcher clause = CLAUSE.matcher(expression);
+
+        List<Integer> starts = new ArrayList<>();
+        while (clause.find()) {
+            starts.add(clause.start());
+        }
+        if (starts.isEmpty() || starts.get(0) != 0) {
+            throw unsupported(expression);
+        }
+        starts.add(expression.length());
+
+        for (int i = 0; i < starts.size() - 1; i++) {
+            String[] keywordAndActions = expression.substring(starts.get(i), starts.get(i + 1)).trim().split("\\s+", 2);
+            for (String action : keywordAndActions[1].split(",")) {
+                applyAction(item, keywordAndActions[0].toUpperCase(), action.trim(), request);
+            }
+        }
+    }
+
+    private static void applyAction(
+        Map<String, AttributeValue> item,
+        String keyword,
+        String action,
+        UpdateItemRequest request)
+    {
+        if ("SET".equals(keyword)) {
+            Matcher set = SET.matcher(action);
+            if (!set.matches()) {
+                throw unsupported(action);
+            }
+            AttributeValue value = operand(item, set.group(2), request);
+            if (null != set.group(3)) {
+                AttributeValue other = operand(item, set.group(4), request);
+                value = "+".equals(set.group(3)) ? add(value, other) : add(value, negate(other));
+            }
+            item.put(name(set.group(1), request), value);
+            return;
+        }
+
+        String[] parts = action.split("\\s+");
+        if ("REMOVE".equals(keyword) && parts.length == 1) {
+            item.remove(name(parts[0], request));
+        } else if ("ADD".equals(keyword) && parts.length == 2) {
+            String name = name(parts[0], request);
+            item.put(name, add(item.get(name), operand(item, parts[1], request)));
+        } else if ("DELETE".equals(keyword) && parts.length == 2) {
+            String name = name(parts[0], request);
+            AttributeValue remaining = remove(item.get(name), operand(item, parts[1], request));
+            if (null == remaining) {
+                item.remove(name);
+            } else {
+                item.put(name, remaining);
+            }
+        } else {
+            throw unsupported(action);
+        }
+    }
+
+    private static AttributeValue operand(Map<String, AttributeValue> item, String operand, UpdateItemRequest request)
+    {
+        if (operand.startsWith(":")) {
+            return Optional.ofNullable(request.expressionAttributeValues().get(operand))
+                .orElseThrow(() -> InMemoryTable.invalid("Undefined expression attribute value " + operand));
+        }
+        return Optional.ofNullable(item.get(name(operand, request)))
+            .orElseThrow(() -> InMemoryTable.invalid("The attribute of " + operand + " does not exist"));
+    }
+
+    private static String name(String path, UpdateItemRequest request)
+    {
+        if (!OPERAND.matcher(path).matches() || path.startsWith(":")) {
+            throw unsupported(path);
+        }
+        if (path.startsWith("#")) {
+            return Optional.ofNullable(request.expressionAttributeNames().get(path))
+                .orElseThrow(() -> InMemoryTable.invalid("Undefined expression attribute name " + path));
+        }
+        return path;
+    }
+
+    /**
+     * Adds numbers, or joins sets; a missing attribute counts as zero or the empty set.
+     */
+    private static AttributeValue add(AttributeValue value, AttributeValue added)
+    {
+        if (null != added.n()) {
+            BigDecimal current = Optional.ofNullable(value).map(AttributeValue::n).map(BigDecimal::new)
+                .orElse(BigDecimal.ZERO);
+            return AttributeValue.builder().n(current.add(new BigDecimal(added.n())).toPlainString()).build();
+        }
+        if (!added.ss().isEmpty()) {
+            Set<String> joined = new LinkedHashSet<>(null == value ? Collections.emptyList() : value.ss());
+            joined.addAll(added.ss());
+            return AttributeValue.builder().ss(joined).build();
+        }
+        if (!added.ns().isEmpty()) {
+            Set<String> joined = new LinkedHashSet<>(null == value ? Collections.emptyList() : value.ns());
+            joined.addAll(added.ns());
+            return AttributeValue.builder().ns(joined).build();
+        }
+        if (!added.bs().isEmpty()) {
+            Set<SdkBytes> joined = new LinkedHashSet<>(null == value ? Collections.emptyList() : value.bs());
+            joined.addAll(added.bs());
+            return AttributeValue.builder().bs(joined).build();
+        }
+        throw InMemoryTable.invalid("ADD only supports numbers and sets: " + added);
+    }
+
+    /**
+     * Removes the elements from a set, null when none are left.
+     */
+    private static AttributeValue remove(AttributeValue value, AttributeValue removed)
+    {
+        if (null == value) {
+            return null;
+        }
+        if (!value.ss().isEmpty() && !removed.ss().isEmpty()) {
+            Set<String> left = new LinkedHashSet<>(value.ss());
+            left.removeAll(removed.ss());
+            return left.isEmpty() ? null : AttributeValue.builder().ss(left).build();
+        }
+        if (!value.ns().isEmpty() && !removed.ns().isEmpty()) {
+            Set<String> left = new LinkedHashSet<>(value.ns());
+            left.removeAll(removed.ns());
+            return left.isEmpty() ? null : AttributeValue.builder().ns(left).build();
+        }
+        if (!value.bs().isEmpty() && !removed.bs().isEmpty()) {
+            Set<SdkBytes> left = new LinkedHashSet<>(value.bs());
+            left.removeAll(removed.bs());
+            return left.isEmpty() ? null : AttributeValue.builder().bs(left).build();
+        }
+        throw InMemoryTable.invalid("DELETE only supports sets: " + removed);
+    }
+
+    private static AttributeValue negate(AttributeValue value)
+    {
+        if (null == value.n()) {
+            throw InMemoryTable.invalid("Only numbers can be subtracted: " + value);
+        }
+        return AttributeValue.builder().n(new BigDecimal(value.n()).negate().toPlainString()).build();
+    }
+
+    private static UnsupportedOperationException unsupported(String expression)
+    {
+        return new UnsupportedOperationException("Unsupported update expression: " + expression);
+    }
+}
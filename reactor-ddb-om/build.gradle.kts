@@ -3,6 +3,7 @@ plugins {
     idea
     `maven-publish`
     id("io.freefair.lombok") version "5.1.0"
+    id("me.champeau.gradle.jmh") version "0.5.0"
 }
 
 
@@ -42,9 +43,12 @@ dependencies {
     testImplementation("org.testcontainers:junit-jupiter")
 
     testImplementation(project(":reactor-aws-test"))
+    testImplementation(testFixtures(project(":reactor-aws-ddb")))
 
     //testCompileOnly(project(":reactor-ddb-om"))
     testAnnotationProcessor(project(":reactor-ddb-om"))
+
+    jmhAnnotationProcessor(project(":reactor-ddb-om"))
 }
 
 sourceSets["test"].java {
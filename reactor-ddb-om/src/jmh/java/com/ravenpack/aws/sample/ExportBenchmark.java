@@ -0,0 +1,71 @@
+package com.ravenpack.aws.sample;
+
+import com.ravenpack.aws.reactor.ddb.mapper.LiveMappingDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated straight-line exporters against the field by field export of {@link LiveMappingDescription}, which
+ * hand-written mappers still use. Run with {@code ./gradlew :reactor-ddb-om:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportBenchmark
+{
+    private static final LiveMappingDescription<BenchmarkTable> GENERATED = BenchmarkTableRepository.BENCHMARK_TABLE;
+
+    /**
+     * The same fields, without the exporters of the generated subclass.
+     */
+    private static final LiveMappingDescription<BenchmarkTable> FIELD_BY_FIELD = GENERATED.project(
+        Arrays.asList("uid", "range", "payload", "description", "val", "timestamp", "fuzzyVal"));
+
+    private final BenchmarkTable item = BenchmarkTable.builder()
+        .uid("someUID")
+        .range("someRange")
+        .payload("payload")
+        .val(42)
+        .timestamp(1_600_000_000_000L)
+        .fuzzyVal(322.0)
+        .build();
+
+    @Benchmark
+    public Map<String, AttributeValue> generatedExport()
+    {
+        return GENERATED.export(item);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> fieldByFieldExport()
+    {
+        return FIELD_BY_FIELD.export(item);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> generatedExportKeys()
+    {
+        return GENERATED.exportKeys(item);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> fieldByFieldExportKeys()
+    {
+        return FIELD_BY_FIELD.exportKeys(item);
+    }
+}
@@ -2,13 +2,16 @@ package com.ravenpack.aws.reactor.ddb.processor;
 
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBAttribute;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBConverted;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBCounter;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBDocument;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBHashKey;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBIndexHashKey;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBIndexRangeKey;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBLocalIndexRangeKey;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBRangeKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBShardedHashKey;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBTable;
+import com.ravenpack.aws.reactor.ddb.mapper.Lazy;
 import com.ravenpack.aws.reactor.ddb.processor.model.ClassDescription;
 import com.ravenpack.aws.reactor.ddb.processor.model.FieldDescription;
 import lombok.AllArgsConstructor;
@@ -26,15 +29,22 @@ import javax.lang.model.util.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @AllArgsConstructor
 public class AnalizerVisitor extends SimpleElementVisitor8<Object, Map<String, ClassDescription>>  {
 
+    private static final Set<FieldDescription.DDBType> KEY_TYPES = EnumSet.of(
+            FieldDescription.DDBType.S, FieldDescription.DDBType.C, FieldDescription.DDBType.N,
+            FieldDescription.DDBType.L, FieldDescription.DDBType.D, FieldDescription.DDBType.SH,
+            FieldDescription.DDBType.F, FieldDescription.DDBType.BD);
+
     private Logger logger;
     private Types types;
 
@@ -71,12 +81,51 @@ public class AnalizerVisitor extends SimpleElementVisitor8<Object, Map<String, C
                         .filter(it -> ElementKind.FIELD == it.getKind())
                         .forEach(it -> it.accept(this, o));
 
+                validateSharding(discoveredClass);
+                validateKeyTypes(discoveredClass);
+
             }
 
         }
         return this;
     }
 
+    /**
+     * The shard of an item is picked by its range key, and the shard is a suffix of the stored string,
+     * so sharding is ignored on other kinds of hash keys.
+     */
+    private void validateSharding(ClassDescription classDescription)
+    {
+        boolean hasRangeKey = classDescription.getFieldDescriptions()
+                .stream()
+                .anyMatch(FieldDescription::isRangeKey);
+
+        classDescription.getFieldDescriptions().replaceAll(it -> {
+            if (it.getShards() > 0 && (!hasRangeKey || FieldDescription.DDBType.S != it.getDdbType())) {
+                logger.warn("Ignoring @DynamoDBShardedHashKey on " + it.getName()
+                                    + ", only string hash keys of tables with a range key can be sharded");
+                return it.toBuilder().shards(0).build();
+            }
+            return it;
+        });
+    }
+
+    /**
+     * DynamoDB keys of tables and indexes are strings, numbers or binary, and of those fields are only mapped to
+     * strings and numbers, so booleans, enums and documents are rejected as keys.
+     */
+    private void validateKeyTypes(ClassDescription classDescription)
+    {
+        classDescription.getFieldDescriptions()
+                .stream()
+                .filter(it -> it.isHashKey() || it.isRangeKey() || null != it.getLocalIndex()
+                        || !it.getGlobalIndexHash().isEmpty() || !it.getGlobalIndexRange().isEmpty())
+                .filter(it -> it.isLazy() || !KEY_TYPES.contains(it.getDdbType()))
+                .forEach(it -> logger.error("Field " + classDescription.getName() + "." + it.getName()
+                                                    + " of type " + it.getTypeName()
+                                                    + " can not be a key, only strings and numbers can be"));
+    }
+
     public TypeMirror getConverterMirror(Element e)
     {
 
@@ -90,28 +139,47 @@ public class AnalizerVisitor extends SimpleElementVisitor8<Object, Map<String, C
         return null;
     }
 
+    /**
+     * The type argument of a {@link Lazy} field, which is mapped as the content it decodes to, otherwise the type
+     * itself.
+     */
+    private TypeMirror lazyContent(TypeMirror type)
+    {
+        return Optional.of(type)
+                .filter(DeclaredType.class::isInstance)
+                .map(DeclaredType.class::cast)
+                .filter(it -> Lazy.class.getCanonicalName().equals(it.asElement().toString()))
+                .filter(it -> 1 == it.getTypeArguments().size())
+                .<TypeMirror>map(it -> it.getTypeArguments().get(0))
+                .orElse(type);
+    }
+
     @Override
     public Object visitVariable(VariableElement e,  Map<String, ClassDescription> o) {
 
         ClassDescription classDescription = o.get(e.getEnclosingElement().getSimpleName().toString() );
 
+        TypeMirror type = lazyContent(e.asType());
+        boolean isLazy = type != e.asType();
+
         FieldDescription.DDBType ddbType = Arrays.stream(FieldDescription.DDBType.values())
+                .filter(it -> !isLazy)
                 .filter(it -> it.match(e))
                 .findFirst()
                 .orElse(FieldDescription.DDBType.OTHER);
 
         String name = e.getSimpleName().toString() ;
-        types.asElement(e.asType()).accept(this, o);
+        Optional.ofNullable(types.asElement(type)).ifPresent(it -> it.accept(this, o));
 
         List<String> typeArguments  = Collections.emptyList();
 
-        if(  e.asType() instanceof  DeclaredType   )
+        if(  type instanceof  DeclaredType   )
         {
-            for (TypeMirror typeArgument : ((DeclaredType) e.asType()).getTypeArguments()) {
+            for (TypeMirror typeArgument : ((DeclaredType) type).getTypeArguments()) {
                 types.asElement(typeArgument).accept(this, o);
             }
 
-            typeArguments =    ((DeclaredType) e.asType()).getTypeArguments().stream()
+            typeArguments =    ((DeclaredType) type).getTypeArguments().stream()
                     .map( types::asElement)
                     .map(it -> it.getSimpleName().toString())
                     .collect(Collectors.toList());
@@ -121,13 +189,20 @@ public class AnalizerVisitor extends SimpleElementVisitor8<Object, Map<String, C
         classDescription.getFieldDescriptions().add(
          FieldDescription.builder()
                 .name(name)
-                .typeName(e.asType().toString())
-                .typePackage(e.asType().toString())
+                .typeName(type.toString())
+                .typePackage(type.toString())
                 .ddbType(ddbType)
                 .typeArguments(typeArguments)
                 .conversionClass(getConverterMirror(e))
-                .isHashKey(Optional.ofNullable(e.getAnnotation(DynamoDBHashKey.class)).isPresent())
+                .isHashKey(Optional.ofNullable(e.getAnnotation(DynamoDBHashKey.class)).isPresent()
+                        || Optional.ofNullable(e.getAnnotation(DynamoDBShardedHashKey.class)).isPresent())
                 .isRangeKey(Optional.ofNullable(e.getAnnotation(DynamoDBRangeKey.class)).isPresent())
+                .isCounter(Optional.ofNullable(e.getAnnotation(DynamoDBCounter.class)).isPresent())
+                .isPrimitive(e.asType().getKind().isPrimitive())
+                .isLazy(isLazy)
+                .shards(Optional.ofNullable(e.getAnnotation(DynamoDBShardedHashKey.class))
+                        .map(DynamoDBShardedHashKey::shards)
+                        .orElse(0))
                 .localIndex(Optional.ofNullable(e.getAnnotation(DynamoDBLocalIndexRangeKey.class))
                         .map(DynamoDBLocalIndexRangeKey::localSecondaryIndexName)
                         .orElse(null))
@@ -140,7 +215,9 @@ public class AnalizerVisitor extends SimpleElementVisitor8<Object, Map<String, C
                         .map(Arrays::asList)
                         .orElseGet(Collections::emptyList))
                  .sourandingClasses(o)
-                 .classReference( ((DeclaredType) e.asType()).asElement().getSimpleName().toString() )
+                 .classReference(Optional.ofNullable(types.asElement(type))
+                        .map(it -> it.getSimpleName().toString())
+                        .orElse(null))
                 .attribute(Optional.of(DynamoDBAttribute.class)
                         .map(e::getAnnotation)
                         .map(DynamoDBAttribute::attributeName)
@@ -3,6 +3,7 @@ package com.ravenpack.aws.reactor.ddb.processor;
 import com.google.auto.service.AutoService;
 import com.ravenpack.aws.reactor.ddb.BaseRepository;
 import com.ravenpack.aws.reactor.ddb.DynamoSearch;
+import com.ravenpack.aws.reactor.ddb.Page;
 import com.ravenpack.aws.reactor.ddb.RxDynamo;
 import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBTable;
 import com.ravenpack.aws.reactor.ddb.mapper.LiveMappingDescription;
@@ -21,11 +22,19 @@ import com.squareup.javapoet.TypeSpec;
 import lombok.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.Condition;
 import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -39,6 +48,7 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Types;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -46,6 +56,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.ravenpack.aws.reactor.ddb.processor.TypoUtils.toSnakeCase;
@@ -138,6 +149,19 @@ public class DynamoDBProcessor extends AbstractProcessor
                                     .addModifiers(STATIC)
                                     .superclass(ptype)
                                     .addMethod(MethodSpec.constructorBuilder().addCode(descriptionGenerator.createMapper(it)).build())
+                                    .addMethod(MethodSpec.methodBuilder("transform")
+                                                   .addAnnotation(Override.class)
+                                                   .addModifiers(PUBLIC)
+                                                   .addParameter(get(ClassName.get(Map.class),
+                                                                     ClassName.get(String.class),
+                                                                     ClassName.get(AttributeValue.class)), "item")
+                                                   .returns(modelClass)
+                                                   .addCode(descriptionGenerator.createTransform(it))
+                                                   .build())
+                                    .addMethod(createExporter("export", modelClass,
+                                                              descriptionGenerator.createExport(it, false)))
+                                    .addMethod(createExporter("exportKeys", modelClass,
+                                                              descriptionGenerator.createExport(it, true)))
                                     .build();
                         })
                         .collect(Collectors.toList()))
@@ -183,6 +207,30 @@ public class DynamoDBProcessor extends AbstractProcessor
                                         .unindent()
                                         .build())
 
+                           .returns(get(ClassName.get(Mono.class), clazz))
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("requestUpdate")
+                           .addModifiers(PUBLIC)
+                           .addParameter(ParameterSpec.builder(clazz, "old").build())
+                           .addParameter(ParameterSpec.builder(clazz, "updated").build())
+                           .addCode("return $L.exportUpdateExpression(old, updated)\n", mainMapperName)
+                           .addCode("    .map(it -> $T.builder()\n", UpdateItemRequest.class)
+                           .addCode("        .tableName(tableName)\n")
+                           .addCode("        .key(it.key())\n")
+                           .addCode("        .updateExpression(it.updateExpression())\n")
+                           .addCode("        .expressionAttributeNames(it.expressionAttributeNames())\n")
+                           .addCode("        .expressionAttributeValues(it.expressionAttributeValues())\n")
+                           .addCode("        .build());\n")
+                           .returns(get(ClassName.get(Optional.class), ClassName.get(UpdateItemRequest.class)))
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("update")
+                           .addModifiers(PUBLIC)
+                           .addAnnotation(Override.class)
+                           .addParameter(ParameterSpec.builder(clazz, "old").build())
+                           .addParameter(ParameterSpec.builder(clazz, "updated").build())
+                           .addCode("return $T.justOrEmpty(requestUpdate(old, updated))\n", Mono.class)
+                           .addCode("    .flatMap(rxDynamo::update)\n")
+                           .addCode("    .thenReturn(updated);\n")
                            .returns(get(ClassName.get(Mono.class), clazz))
                            .build())
             .addMethod(MethodSpec.methodBuilder("create")
@@ -203,6 +251,32 @@ public class DynamoDBProcessor extends AbstractProcessor
                                         .build())
                            .returns(get(ClassName.get(Mono.class), clazz))
                            .build())
+            .addMethod(MethodSpec.methodBuilder("createAll")
+                           .addModifiers(PUBLIC)
+                           .addAnnotation(Override.class)
+                           .addParameter(ParameterSpec.builder(get(ClassName.get(Flux.class), clazz), "items").build())
+                           .addCode(CodeBlock.builder()
+                                        .add("return $T.defer(() -> {\n", Flux.class)
+                                        .indent()
+                                        .add("$T<$T, $T> written = new $T<>();\n", Map.class,
+                                             WriteRequest.class, clazz, ConcurrentHashMap.class)
+                                        .add("return items.map(it -> {\n")
+                                        .indent()
+                                        .add("$T request = $T.builder()\n", WriteRequest.class, WriteRequest.class)
+                                        .add("    .putRequest($T.builder().item($L.export(it)).build())\n",
+                                             PutRequest.class, mainMapperName)
+                                        .add("    .build();\n")
+                                        .add("written.put(request, it);\n")
+                                        .add("return request;\n")
+                                        .unindent()
+                                        .add("})\n")
+                                        .add(".transform(rxDynamo.batchWrite(tableName))\n")
+                                        .add(".flatMap(it -> $T.justOrEmpty(written.remove(it)));\n", Mono.class)
+                                        .unindent()
+                                        .add("});\n")
+                                        .build())
+                           .returns(get(ClassName.get(Flux.class), clazz))
+                           .build())
             .addMethod(MethodSpec.methodBuilder("delete")
                            .addModifiers(PUBLIC)
                            .addAnnotation(Override.class)
@@ -210,7 +284,7 @@ public class DynamoDBProcessor extends AbstractProcessor
                            .addCode(CodeBlock.builder().indent()
                                         .add("return rxDynamo.delete(\n$L)\n.then();\n",
                                              CodeBlock.builder().indent()
-                                                 .add("$T.builder()\n.key($L.export(someName))\n.build()",
+                                                 .add("$T.builder()\n.tableName(tableName)\n.key($L.exportKeys(someName))\n.build()",
                                                       DeleteItemRequest.class, mainMapperName)
                                                  .unindent()
                                                  .build())
@@ -218,6 +292,35 @@ public class DynamoDBProcessor extends AbstractProcessor
                                         .build())
                            .returns(get(ClassName.get(Mono.class), get(Void.class)))
                            .build())
+            .addMethod(MethodSpec.methodBuilder("deleteAll")
+                           .addModifiers(PUBLIC)
+                           .addAnnotation(Override.class)
+                           .addParameter(ParameterSpec.builder(get(ClassName.get(Flux.class), clazz), "items").build())
+                           .addCode(CodeBlock.builder()
+                                        .indent()
+                                        .add("return items.map(it -> $T.builder()\n", WriteRequest.class)
+                                        .add(".deleteRequest($T.builder().key($L.exportKeys(it)).build())\n",
+                                             DeleteRequest.class, mainMapperName)
+                                        .add(".build())\n")
+                                        .add(".transform(rxDynamo.batchWrite(tableName))\n")
+                                        .add(".then();")
+                                        .unindent()
+                                        .build())
+                           .returns(get(ClassName.get(Mono.class), get(Void.class)))
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("get")
+                           .addModifiers(PUBLIC)
+                           .addAnnotation(Override.class)
+                           .addParameter(ParameterSpec.builder(clazz, "key").build())
+                           .addCode("return rxDynamo.get(\n$L)\n",
+                                    CodeBlock.builder().indent().add("$T.builder()\n", GetItemRequest.class)
+                                        .add(".tableName(tableName)\n")
+                                        .add(".key($L.exportKeys(key))\n", mainMapperName)
+                                        .add(".build()")
+                                        .build())
+                           .addCode(".map($L::transform);", mainMapperName)
+                           .returns(get(ClassName.get(Mono.class), clazz))
+                           .build())
             .addMethod(MethodSpec.methodBuilder("getAll")
                            .addModifiers(PUBLIC)
                            .addAnnotation(Override.class)
@@ -229,6 +332,37 @@ public class DynamoDBProcessor extends AbstractProcessor
                            .addCode(".map($L::transform);", mainMapperName)
                            .returns(get(ClassName.get(Flux.class), clazz))
                            .build())
+            .addMethod(MethodSpec.methodBuilder("getAll")
+                           .addModifiers(PUBLIC)
+                           .addAnnotation(Override.class)
+                           .addParameter(ParameterSpec.builder(int.class, "totalSegments").build())
+                           .addCode("return rxDynamo.parallelScan(\n$L, totalSegments, totalSegments)\n",
+                                    CodeBlock.builder().indent().add("$T.builder()\n", DynamoSearch.class)
+                                        .add(".tableName(tableName)\n")
+                                        .add(".build()\n")
+                                        .build())
+                           .addCode(".map($L::transform);", mainMapperName)
+                           .returns(get(ClassName.get(Flux.class), clazz))
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("getByKeys")
+                           .addModifiers(PUBLIC)
+                           .addAnnotation(Override.class)
+                           .addParameter(ParameterSpec.builder(get(ClassName.get(Flux.class), clazz), "keys").build())
+                           .addCode(CodeBlock.builder()
+                                        .indent()
+                                        .add("return keys.map($L::exportKeys)\n", mainMapperName)
+                                        .add(".transform(rxDynamo.batchGet(tableName))\n")
+                                        .add(".map($L::transform);", mainMapperName)
+                                        .unindent()
+                                        .build())
+                           .returns(get(ClassName.get(Flux.class), clazz))
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("transaction")
+                           .addModifiers(PUBLIC)
+                           .addCode("return new TransactionBuilder();\n")
+                           .returns(ClassName.get(repositoryClazz.canonicalName(), "TransactionBuilder"))
+                           .build())
+            .addType(transactionBuilderGenerator(clazz, repositoryClazz, mainMapperName))
             .addMethod(MethodSpec.methodBuilder("createTable")
                            .addModifiers(PUBLIC)
                            .addAnnotation(Override.class)
@@ -267,6 +401,98 @@ public class DynamoDBProcessor extends AbstractProcessor
             .writeTo(filer);
     }
 
+    /**
+     * Typed collector of the writes of one transaction. Its items may be combined with the ones of other
+     * repositories' builders and written with {@link RxDynamo#transactWrite(List)}.
+     */
+    private TypeSpec transactionBuilderGenerator(ClassName clazz, ClassName repositoryClazz, String mainMapperName)
+    {
+        ClassName builderClazz = ClassName.get(repositoryClazz.canonicalName(), "TransactionBuilder");
+
+        return TypeSpec.classBuilder(builderClazz)
+            .addModifiers(PUBLIC, FINAL)
+            .addField(FieldSpec.builder(get(ClassName.get(List.class), ClassName.get(TransactWriteItem.class)),
+                                        "items", PRIVATE, FINAL)
+                          .initializer("new $T<>()", ArrayList.class)
+                          .build())
+            .addMethod(MethodSpec.methodBuilder("create")
+                           .addModifiers(PUBLIC)
+                           .addParameter(ParameterSpec.builder(clazz, "item").build())
+                           .addCode("items.add($T.builder()\n", TransactWriteItem.class)
+                           .addCode("    .put($T.builder().tableName(tableName).item($L.export(item)).build())\n",
+                                    Put.class, mainMapperName)
+                           .addCode("    .build());\n")
+                           .addCode("return this;\n")
+                           .returns(builderClazz)
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("update")
+                           .addModifiers(PUBLIC)
+                           .addParameter(ParameterSpec.builder(clazz, "item").build())
+                           .addCode("items.add($T.builder()\n", TransactWriteItem.class)
+                           .addCode("    .update($L.exportUpdateExpression(item).toBuilder().tableName(tableName).build())\n",
+                                    mainMapperName)
+                           .addCode("    .build());\n")
+                           .addCode("return this;\n")
+                           .returns(builderClazz)
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("delete")
+                           .addModifiers(PUBLIC)
+                           .addParameter(ParameterSpec.builder(clazz, "item").build())
+                           .addCode("items.add($T.builder()\n", TransactWriteItem.class)
+                           .addCode("    .delete($T.builder().tableName(tableName).key($L.exportKeys(item)).build())\n",
+                                    Delete.class, mainMapperName)
+                           .addCode("    .build());\n")
+                           .addCode("return this;\n")
+                           .returns(builderClazz)
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("items")
+                           .addModifiers(PUBLIC)
+                           .addCode("return $T.unmodifiableList(items);\n", Collections.class)
+                           .returns(get(ClassName.get(List.class), ClassName.get(TransactWriteItem.class)))
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("execute")
+                           .addModifiers(PUBLIC)
+                           .addCode("return rxDynamo.transactWrite(items);\n")
+                           .returns(get(ClassName.get(Mono.class), get(Void.class)))
+                           .build())
+            .build();
+    }
+
+    /**
+     * Overrides an export of {@link LiveMappingDescription} with straight-line code of the mapped class.
+     */
+    private static MethodSpec createExporter(String name, ClassName modelClass, CodeBlock body)
+    {
+        return MethodSpec.methodBuilder(name)
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .addParameter(ParameterSpec.builder(modelClass, "value").build())
+            .returns(get(ClassName.get(Map.class), ClassName.get(String.class), ClassName.get(AttributeValue.class)))
+            .addCode(body)
+            .build();
+    }
+
+    /**
+     * A query of a sharded hash key reads all of its shards, so their items are merged by the range key, in the
+     * order a query of an unsharded key would return them.
+     */
+    private static MethodSpec createExecute(IndexDescription indexDescription, ClassName modelClass)
+    {
+        CodeBlock search = Optional.ofNullable(indexDescription.getRangeField())
+            .filter(range -> Optional.ofNullable(indexDescription.getHashField())
+                .filter(hash -> hash.getShards() > 0)
+                .isPresent())
+            .map(range -> CodeBlock.of("rxDynamo.searchOrdered(dynamoSearch, $S)", range.getAttribute()))
+            .orElseGet(() -> CodeBlock.of("rxDynamo.search(dynamoSearch)"));
+
+        return MethodSpec.methodBuilder("execute")
+            .addModifiers(PUBLIC)
+            .returns(get(ClassName.get(Flux.class), modelClass))
+            .addCode("return $L", search)
+            .addCode(".map(mapper()::transform);")
+            .build();
+    }
+
     public TypeSpec fluentQueryGenerator(IndexDescription indexDescription, ClassDescription classDescription)
     {
 
@@ -334,11 +560,61 @@ public class DynamoDBProcessor extends AbstractProcessor
             .addField(FieldSpec.builder(RxDynamo.class, "rxDynamo", FINAL, PRIVATE).build())
             .addField(FieldSpec.builder(DynamoSearch.class, "dynamoSearch", FINAL, PRIVATE).build())
             .addModifiers(PUBLIC, FINAL)
-            .addMethod(MethodSpec.methodBuilder("execute")
+            .addMethod(MethodSpec.methodBuilder("mapper")
+                           .addModifiers(PRIVATE)
+                           .returns(get(ClassName.get(LiveMappingDescription.class), clazz))
+                           .addCode("return $T.ofNullable(dynamoSearch.getAttributeNames())\n", Optional.class)
+                           .addCode("    .map($L::project)\n", toSnakeCase(classDescription.getName()))
+                           .addCode("    .orElse($L);\n", toSnakeCase(classDescription.getName()))
+                           .build())
+            .addMethod(createExecute(indexDescription, clazz))
+            .addMethod(MethodSpec.methodBuilder("executePage")
                            .addModifiers(PUBLIC)
-                           .returns(get(ClassName.get(Flux.class), clazz))
-                           .addCode("return rxDynamo.search(dynamoSearch)")
-                           .addCode(".map($L::transform);", toSnakeCase(classDescription.getName()))
+                           .addParameter(ParameterSpec.builder(String.class, "cursor").build())
+                           .addParameter(ParameterSpec.builder(int.class, "size").build())
+                           .returns(get(ClassName.get(Mono.class), get(ClassName.get(Page.class), clazz)))
+                           .addCode("return rxDynamo.searchPage(dynamoSearch, cursor, size)")
+                           .addCode(".map(page -> page.map(mapper()::transform));")
+                           .build())
+            .addMethods(Optional.ofNullable(indexDescription.getRangeField())
+                            .map(range -> MethodSpec.methodBuilder("executeOrdered")
+                                .addModifiers(PUBLIC)
+                                .returns(get(ClassName.get(Flux.class), clazz))
+                                .addCode("return rxDynamo.searchOrdered(dynamoSearch, $S)", range.getAttribute())
+                                .addCode(".map(mapper()::transform);")
+                                .build())
+                            .map(Collections::singletonList)
+                            .orElseGet(Collections::emptyList))
+            .addMethods(Optional.ofNullable(indexDescription.getRangeField())
+                            .map(range -> MethodSpec.methodBuilder("executeParallel")
+                                .addModifiers(PUBLIC)
+                                .addParameter(get(ClassName.get(List.class), ClassName.get(AttributeValue.class)),
+                                              "splitPoints")
+                                .addParameter(int.class, "maxConcurrency")
+                                .returns(get(ClassName.get(Flux.class), clazz))
+                                .addCode("return rxDynamo.parallelQuery(dynamoSearch, $S, splitPoints, "
+                                             + "maxConcurrency)", range.getAttribute())
+                                .addCode(".map(mapper()::transform);")
+                                .build())
+                            .map(Collections::singletonList)
+                            .orElseGet(Collections::emptyList))
+            .addMethod(MethodSpec.methodBuilder("count")
+                           .addModifiers(PUBLIC)
+                           .returns(get(ClassName.get(Mono.class), ClassName.get(Long.class)))
+                           .addCode("return rxDynamo.count(dynamoSearch);\n")
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("exists")
+                           .addModifiers(PUBLIC)
+                           .returns(get(ClassName.get(Mono.class), ClassName.get(Boolean.class)))
+                           .addCode("return rxDynamo.exists(dynamoSearch);\n")
+                           .build())
+            .addMethod(MethodSpec.methodBuilder("select")
+                           .addModifiers(PUBLIC)
+                           .addParameter(ParameterSpec.builder(String[].class, "attributeNames").build())
+                           .varargs()
+                           .returns(customSearchCN)
+                           .addCode("return this.withDynamoSearch(dynamoSearch.withAttributeNames($T.asList(attributeNames)));\n",
+                                    Arrays.class)
                            .build())
             .addMethod(MethodSpec.methodBuilder("filter")
                            .addModifiers(PUBLIC)
@@ -1,5 +1,6 @@
 package com.ravenpack.aws.reactor.ddb.processor.generator;
 
+import com.ravenpack.aws.reactor.ddb.mapper.ShardedKeys;
 import com.ravenpack.aws.reactor.ddb.processor.model.FieldDescription;
 import com.ravenpack.aws.reactor.ddb.processor.model.IndexDescription;
 import com.ravenpack.aws.reactor.ddb.processor.TypoUtils;
@@ -7,6 +8,7 @@ import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
@@ -34,7 +36,7 @@ public class FilterMethodsCreator
             .filter(Objects::nonNull)
             .filter(it -> it.getDdbType() != FieldDescription.DDBType.OTHER)
             .flatMap(field -> Stream.of(Operator.values())
-                .map(op -> op.createMethod(className, field)))
+                .map(op -> createMethod(op, className, field)))
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
@@ -47,11 +49,81 @@ public class FilterMethodsCreator
         return description.getAttributes().stream()
             .filter(it -> it.getDdbType() != FieldDescription.DDBType.OTHER)
             .flatMap(field -> Stream.of(Operator.values())
-                .map(op -> op.createMethod(className, field)))
+                .map(op -> createMethod(op, className, field)))
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
 
+    /**
+     * Sharded keys are stored as {@code key#shard}, so only equality maps to the stored values; comparisons and
+     * prefixes would compare against the shard suffixes and are not generated for them. DynamoDB only compares
+     * booleans for (in)equality, so the other comparisons are not generated for them either.
+     */
+    private static MethodSpec createMethod(Operator op, ClassName className, FieldDescription fd)
+    {
+        if (fd.getShards() > 0) {
+            switch (op) {
+                case EQ:
+                case IN:
+                    return createShardedMethod(className, fd, op);
+                case NULL:
+                case NOT_NULL:
+                    return op.createMethod(className, fd);
+                default:
+                    return null;
+            }
+        }
+        if (fd.getDdbType() == FieldDescription.DDBType.BOOL) {
+            switch (op) {
+                case EQ:
+                case NE:
+                case NULL:
+                case NOT_NULL:
+                    return op.createMethod(className, fd);
+                default:
+                    return null;
+            }
+        }
+        return op.createMethod(className, fd);
+    }
+
+    /**
+     * A sharded key equals any of the stored keys of its shards.
+     */
+    public static MethodSpec createShardedMethod(ClassName className, FieldDescription fd, Operator op)
+    {
+        String methodName = fd.getName() + TypoUtils.upperCaseFirstLetter(op.getValue());
+
+        CodeBlock values = Optional.of(op)
+            .filter(Operator.EQ::equals)
+            .map(it -> CodeBlock.of("$T.shards(property, $L)", ShardedKeys.class, fd.getShards()))
+            .orElseGet(() -> CodeBlock.of(
+                "property.stream().flatMap(it -> $T.shards(it, $L).stream()).collect($T.toList())",
+                ShardedKeys.class, fd.getShards(), Collectors.class));
+
+        TypeName parameterType = Optional.of(op)
+            .filter(Operator.EQ::equals)
+            .<TypeName>map(it -> ClassName.get(String.class))
+            .orElseGet(() -> get(ClassName.get(List.class), ClassName.get(String.class)));
+
+        return MethodSpec.methodBuilder(methodName)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(parameterType, "property")
+            .returns(className)
+            .addCode("if(  null !=property ){ ")
+            .addCode(CodeBlock
+                         .of("conditionHashMap.put($S,$L);\n", fd.getAttribute(),
+                             CodeBlock.builder()
+                                 .add("$T.builder()\n", Condition.class)
+                                 .add(".comparisonOperator($T.$L)\n", ComparisonOperator.class, ComparisonOperator.IN)
+                                 .add(".attributeValueList($L)\n", values)
+                                 .add(".build()")
+                                 .build()))
+            .addCode("}")
+            .addCode("return this;")
+            .build();
+    }
+
     public static MethodSpec createNoArgMethod(ClassName className, FieldDescription fd, Operator op)
     {
 
@@ -75,15 +147,11 @@ public class FilterMethodsCreator
 
         String methodName = fd.getName() + TypoUtils.upperCaseFirstLetter(op.getValue());
 
-        CodeBlock coreBlock = Optional.of(CodeBlock.of("$T.builder().$L(String.valueOf(property)).build()",
-                                                       AttributeValue.class, fd.getDdbType().getSymbol()))
-            .filter(it -> fd.getDdbType() != FieldDescription.DDBType.C)
-            .orElseGet(() -> CodeBlock.of("$T.builder().$L($T.toValue(property)).build()",
-                                          AttributeValue.class, fd.getDdbType().getSymbol(), fd.getConversionClass()));
+        CodeBlock coreBlock = ScalarConversions.toAttribute(fd, CodeBlock.of("property"));
 
         return MethodSpec.methodBuilder(methodName)
             .addModifiers(Modifier.PUBLIC)
-            .addParameter(ClassName.bestGuess(fd.getTypeName()), "property")
+            .addParameter(ScalarConversions.filterType(fd), "property")
 
             .returns(className)
             .addCode("if(  null !=property ){ ", String.class)
@@ -117,7 +185,18 @@ public class FilterMethodsCreator
             public MethodSpec createMethod(ClassName className, FieldDescription fd)
             {
 
-                ParameterizedTypeName aa = get(ClassName.get(List.class), ClassName.get(fd.getDdbType().getClazz()));
+                ParameterizedTypeName aa = get(ClassName.get(List.class), Optional.of(fd)
+                    .filter(it -> it.getDdbType() != FieldDescription.DDBType.C)
+                    .map(ScalarConversions::filterType)
+                    .orElseGet(() -> ClassName.get(fd.getDdbType().getClazz())));
+
+                CodeBlock values = Optional.of(fd)
+                    .filter(it -> it.getDdbType() != FieldDescription.DDBType.C)
+                    .map(it -> CodeBlock.of("property.stream().map(it -> $L).collect($T.toList())",
+                                            ScalarConversions.toAttribute(it, CodeBlock.of("it")), Collectors.class))
+                    .orElseGet(() -> CodeBlock.of(
+                        "property.stream().map(it-> $T.builder().$L(String.valueOf(it)).build()).collect($T.toList())",
+                        AttributeValue.class, fd.getDdbType().getSymbol(), Collectors.class));
 
                 String methodName = fd.getName() + TypoUtils.upperCaseFirstLetter(this.getValue());
                 return MethodSpec.methodBuilder(methodName)
@@ -130,9 +209,7 @@ public class FilterMethodsCreator
                                          .add("$T.builder()\n", Condition.class)
                                          .add(".comparisonOperator($T.$L)\n", ComparisonOperator.class,
                                               this.getDdbOperator())
-                                         .add(
-                                             ".attributeValueList(property.stream().map(it-> $T.builder().$L(String.valueOf(it)).build()).collect($T.toList()))\n",
-                                             AttributeValue.class, fd.getDdbType().getSymbol(), Collectors.class)
+                                         .add(".attributeValueList($L)\n", values)
                                          .add(".build()")
                                          .build()))
                     .addCode("return this;")
@@ -148,22 +225,15 @@ public class FilterMethodsCreator
                 MethodSpec geMethod = GE.createMethod(className, fd);
                 MethodSpec leMethod = LE.createMethod(className, fd);
 
-                CodeBlock coreBlock = Optional.of(CodeBlock.of(
-                    "$T.builder().$L(String.valueOf(begin)).build(), $T.builder().$L(String.valueOf(end)).build()",
-                    AttributeValue.class, fd.getDdbType().getSymbol(), AttributeValue.class,
-                    fd.getDdbType().getSymbol()))
-                    .filter(it -> fd.getDdbType() != FieldDescription.DDBType.C)
-                    .orElseGet(() -> CodeBlock.of(
-                        "$T.builder().$L($T.toValue(begin)).build(), $T.builder().$L($T.toValue(end)).build()",
-                        AttributeValue.class, fd.getDdbType().getSymbol(), fd.getConversionClass(),
-                        AttributeValue.class, fd.getDdbType().getSymbol(), fd.getConversionClass()
-                    ));
+                CodeBlock coreBlock = CodeBlock.of("$L, $L",
+                                                   ScalarConversions.toAttribute(fd, CodeBlock.of("begin")),
+                                                   ScalarConversions.toAttribute(fd, CodeBlock.of("end")));
 
                 String methodName = fd.getName() + TypoUtils.upperCaseFirstLetter(this.getValue());
                 return MethodSpec.methodBuilder(methodName)
                     .addModifiers(Modifier.PUBLIC)
-                    .addParameter(ClassName.bestGuess(fd.getTypeName()), "begin")
-                    .addParameter(ClassName.bestGuess(fd.getTypeName()), "end")
+                    .addParameter(ScalarConversions.filterType(fd), "begin")
+                    .addParameter(ScalarConversions.filterType(fd), "end")
                     .returns(className)
 
                     .addCode("if( begin != null  && end != null ) {")
@@ -6,6 +6,8 @@ import com.ravenpack.aws.reactor.ddb.processor.TypoUtils;
 import com.ravenpack.aws.reactor.ddb.processor.model.ClassDescription;
 import com.ravenpack.aws.reactor.ddb.processor.model.FieldDescription;
 import com.ravenpack.aws.reactor.ddb.mapper.FieldMappingDescription;
+import com.ravenpack.aws.reactor.ddb.mapper.Lazy;
+import com.ravenpack.aws.reactor.ddb.mapper.ShardedKeys;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import lombok.AllArgsConstructor;
@@ -22,8 +24,10 @@ import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
 import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -89,86 +93,265 @@ public class LiveDescriptionGenerator
         CodeBlock toJava,
         CodeBlock toDynamo)
     {
+        return createFieldMappingDescription(dynamoDBName, key, toJava, toDynamo, false);
+    }
+
+    public CodeBlock createFieldMappingDescription(
+        String dynamoDBName,
+        boolean key,
+        CodeBlock toJava,
+        CodeBlock toDynamo,
+        boolean counter)
+    {
 
         return CodeBlock.builder().indent()
-            .add("new $T<>($S\n, $L,\n$L,\n$L)",
+            .add("$T.builderField($S\n, $L,\n$L,\n$L,\n$L)",
                  FieldMappingDescription.class,
                  dynamoDBName,
                  key,
                  CodeBlock.builder().indent().add(toJava).unindent().build(),
-                 CodeBlock.builder().indent().add(toDynamo).unindent().build())
+                 CodeBlock.builder().indent().add(toDynamo).unindent().build(),
+                 counter)
             .unindent()
             .build();
     }
 
+    /**
+     * The attribute is decoded into a setter of the builder of the mapped class.
+     */
     @NotNull
-    public CodeBlock create(@NotNull FieldDescription fieldDescription)
+    public CodeBlock create(@NotNull FieldDescription fieldDescription, @NotNull ClassName builder)
     {
 
-        String sufix = TypoUtils.upperCaseFirstLetter(fieldDescription.getName());
         boolean isKeyValue = fieldDescription.isHashKey() || fieldDescription.isRangeKey();
 
-        if ("java.lang.List<String>".equals(fieldDescription.getTypeName())) {
+        return createFieldMappingDescription(fieldDescription.getAttribute(), isKeyValue,
+                                             CodeBlock.of("($T builder, $T value) -> builder.$L($L)",
+                                                          builder, AttributeValue.class, fieldDescription.getName(),
+                                                          fromAttribute(fieldDescription, CodeBlock.of("value"))),
+                                             CodeBlock.of("value -> $T.ofNullable(value.$L()).map(it -> $L)",
+                                                          Optional.class, getter(fieldDescription),
+                                                          toAttribute(fieldDescription, CodeBlock.of("it"))),
+                                             isCounter(fieldDescription));
+    }
 
-            return createFieldMappingDescription(fieldDescription.getAttribute(), isKeyValue,
-                                                 CodeBlock.of("(bean, value) -> bean.with$L(value.ss())", sufix),
-                                                 CodeBlock.of(
-                                                     "value -> $T.of(value.get$L()).map(it->$T.builder().ss().build())",
-                                                     Optional.class, sufix, AttributeValue.class));
+    /**
+     * Expression decoding the given attribute into the value of the field.
+     */
+    @NotNull
+    private CodeBlock fromAttribute(@NotNull FieldDescription fieldDescription, @NotNull CodeBlock value)
+    {
+        if (fieldDescription.isLazy()) {
 
-        } if (fieldDescription.getTypeName().startsWith("java.util.List")) {
+            return CodeBlock.of("$T.decoding($L, raw -> $L)", Lazy.class, value,
+                                fromAttribute(lazyContent(fieldDescription), CodeBlock.of("raw")));
 
-        String liveMappingName = TypoUtils.toSnakeCase(fieldDescription.getTypeArguments().get(0));
-        return createFieldMappingDescription(fieldDescription.getAttribute(), isKeyValue,
-                CodeBlock.of("(bean, value) -> bean.with$L(value.l().stream().map($T::m).map($L::transform).collect(Collectors.toList()))", sufix ,AttributeValue.class, liveMappingName),
-                CodeBlock.of("value -> $T.of(value.get$L()).map(it->$T.builder().l(it.stream().map($L::export).map(iit -> $T.builder().m(iit).build()).collect($T.toList())).build())",
-                        Optional.class, sufix, AttributeValue.class, liveMappingName, AttributeValue.class, Collectors.class));
+        } else if ("java.lang.List<String>".equals(fieldDescription.getTypeName())) {
+
+            return CodeBlock.of("$L.ss()", value);
+
+        } else if (fieldDescription.getTypeName().startsWith("java.util.List")) {
+
+            String liveMappingName = TypoUtils.toSnakeCase(fieldDescription.getTypeArguments().get(0));
+            return CodeBlock.of("$L.l().stream().map($T::m).map($L::transform).collect($T.toList())",
+                                value, AttributeValue.class, liveMappingName, Collectors.class);
+
+        } else if (ScalarConversions.isScalar(fieldDescription)) {
+
+            return ScalarConversions.fromAttribute(fieldDescription, value);
+
+        } else if (null != fieldDescription.getClassReference()) {
 
+            String liveMappingName = TypoUtils.toSnakeCase(fieldDescription.getClassDescription().getName());
+            return CodeBlock.of("$L.transform($L.m())", liveMappingName, value);
+
+        } else {
+
+            throw new NotSupportedTypeException(fieldDescription);
+        }
     }
 
+    /**
+     * Expression building the attribute out of the given, non null value of the field.
+     */
+    @NotNull
+    private CodeBlock toAttribute(@NotNull FieldDescription fieldDescription, @NotNull CodeBlock value)
+    {
+        if (fieldDescription.isLazy()) {
 
+            return CodeBlock.of("$L.export(decoded -> $L)", value,
+                                toAttribute(lazyContent(fieldDescription), CodeBlock.of("decoded")));
 
+        } else if ("java.lang.List<String>".equals(fieldDescription.getTypeName())) {
 
-        else if (FieldDescription.DDBType.C == fieldDescription.getDdbType()) {
+            return CodeBlock.of("$T.builder().ss($L).build()", AttributeValue.class, value);
 
-            return createFieldMappingDescription(fieldDescription.getAttribute(), isKeyValue,
-                                                 CodeBlock.of("(bean, value) ->  bean.with$L($T.valueOf(value.$L()))",
-                                                              sufix,
-                                                              fieldDescription.getConversionClass(),
-                                                              fieldDescription.getDdbType().getSymbol()),
-                                                 CodeBlock.of(
-                                                     "value -> $T.ofNullable(value.get$L()).map(it-> $T.builder().$L($T.toValue(it)).build())",
-                                                     Optional.class, sufix, AttributeValue.class,
-                                                     fieldDescription.getDdbType().getSymbol(),
-                                                     fieldDescription.getConversionClass()));
-        } else if (Arrays.asList(FieldDescription.DDBType.N, FieldDescription.DDBType.D, FieldDescription.DDBType.S, FieldDescription.DDBType.L).contains(fieldDescription.getDdbType())) {
+        } else if (fieldDescription.getTypeName().startsWith("java.util.List")) {
 
-            return createFieldMappingDescription(fieldDescription.getAttribute(), isKeyValue,
-                                                 CodeBlock.of("(bean, value) -> bean.with$L($T.valueOf(value.$L()))",
-                                                              sufix,
-                                                              fieldDescription.getDdbType().getClazz(),
-                                                              fieldDescription.getDdbType().getSymbol()),
-                                                 CodeBlock.of(
-                                                     "value -> $T.ofNullable(value.get$L()).map(it-> $T.builder().$L(it.toString()).build())",
-                                                     Optional.class, sufix, AttributeValue.class,
-                                                     fieldDescription.getDdbType().getSymbol()));
+            String liveMappingName = TypoUtils.toSnakeCase(fieldDescription.getTypeArguments().get(0));
+            return CodeBlock.of("$T.builder().l($L.stream().map($L::export).map(iit -> $T.builder().m(iit).build())"
+                                    + ".collect($T.toList())).build()",
+                                AttributeValue.class, value, liveMappingName, AttributeValue.class,
+                                Collectors.class);
 
-        } else if (null != fieldDescription.getClassReference()) {
+        } else if (ScalarConversions.isScalar(fieldDescription)) {
+
+            return ScalarConversions.toAttribute(fieldDescription, value);
 
-            String liveMappingName = TypoUtils.toSnakeCase( fieldDescription.getClassDescription().getName());
+        } else if (null != fieldDescription.getClassReference()) {
 
-            return createFieldMappingDescription(fieldDescription.getAttribute(), isKeyValue,
-                                                 CodeBlock.of("(bean, value) -> bean.with$L($L.transform(value.m()))",
-                                                              sufix, liveMappingName),
-                                                 CodeBlock.of(
-                                                     "value -> $T.ofNullable(value.get$L()).map(it-> $T.builder().m($L.export(it)).build())",
-                                                     Optional.class, sufix, AttributeValue.class, liveMappingName));
+            String liveMappingName = TypoUtils.toSnakeCase(fieldDescription.getClassDescription().getName());
+            return CodeBlock.of("$T.builder().m($L.export($L)).build()", AttributeValue.class, liveMappingName, value);
 
         } else {
 
             throw new NotSupportedTypeException(fieldDescription);
         }
+    }
+
+    /**
+     * The content of a lazy field, which may only be a document or a list of documents.
+     */
+    @NotNull
+    private static FieldDescription lazyContent(@NotNull FieldDescription fieldDescription)
+    {
+        if (!fieldDescription.getTypeName().startsWith("java.util.List")
+            && null == fieldDescription.getClassDescription()) {
+            throw new NotSupportedTypeException(fieldDescription);
+        }
+        return fieldDescription.toBuilder().isLazy(false).build();
+    }
+
+    /**
+     * The hash key is stored with the suffix of the shard its range key falls into.
+     */
+    @NotNull
+    private CodeBlock createSharded(
+        @NotNull FieldDescription fieldDescription,
+        @NotNull ClassDescription description,
+        @NotNull ClassName builder)
+    {
+        return createFieldMappingDescription(fieldDescription.getAttribute(), true,
+                                             CodeBlock.of("($T builder, $T value) -> builder.$L($T.unshard(value.s()))",
+                                                          builder, AttributeValue.class,
+                                                          fieldDescription.getName(), ShardedKeys.class),
+                                             CodeBlock.of("value -> $T.ofNullable(value.$L()).map(it -> $L)",
+                                                          Optional.class, getter(fieldDescription),
+                                                          toShardedAttribute(fieldDescription, description,
+                                                                             CodeBlock.of("it"))));
+    }
+
+    @NotNull
+    private CodeBlock toShardedAttribute(
+        @NotNull FieldDescription fieldDescription,
+        @NotNull ClassDescription description,
+        @NotNull CodeBlock value)
+    {
+        CodeBlock rangeKey = description.getFieldDescriptions()
+            .stream()
+            .filter(FieldDescription::isRangeKey)
+            .findFirst()
+            .map(it -> ScalarConversions.toAttribute(it, CodeBlock.of("value.$L()", getter(it))))
+            .orElseThrow(() -> new NotSupportedTypeException(fieldDescription));
+
+        return CodeBlock.of("$T.builder().s($T.shard($L, $L, $L)).build()",
+                            AttributeValue.class, ShardedKeys.class, value, rangeKey,
+                            fieldDescription.getShards());
+    }
+
+    /**
+     * Body of an exporter of the mapped class, taking it as {@code value}: the attributes are put straight into a
+     * presized map, skipping null fields. Primitive fields are always exported.
+     *
+     * @param keysOnly exports only the hash and range key
+     */
+    @NotNull
+    public CodeBlock createExport(@NotNull ClassDescription description, boolean keysOnly)
+    {
+        List<FieldDescription> fields = description.getFieldDescriptions()
+            .stream()
+            .filter(it -> !keysOnly || it.isHashKey() || it.isRangeKey())
+            .collect(Collectors.toList());
+
+        CodeBlock.Builder export = CodeBlock.builder()
+            .addStatement("$T<$T, $T> item = new $T<>($L)", Map.class, String.class, AttributeValue.class,
+                          HashMap.class, fields.size() * 4 / 3 + 1);
+
+        for (FieldDescription field : fields) {
+            CodeBlock getter = CodeBlock.of("value.$L()", getter(field));
+            CodeBlock put = CodeBlock.of("item.put($S, $L)", field.getAttribute(), field.getShards() > 0
+                ? toShardedAttribute(field, description, getter)
+                : toAttribute(field, getter));
+
+            if (field.isPrimitive()) {
+                export.addStatement(put);
+            } else {
+                export.beginControlFlow("if (null != $L)", getter)
+                    .addStatement(put)
+                    .endControlFlow();
+            }
+        }
 
+        return export.addStatement("return item").build();
+    }
+
+    /**
+     * Body of a decoder of the mapped class, taking the attributes as {@code item}: a switch on the attribute name
+     * calls the setter of a single builder, without the lookups and lambdas of the field descriptions.
+     */
+    @NotNull
+    public CodeBlock createTransform(@NotNull ClassDescription description)
+    {
+        ClassName mappedClassName = ClassName.get(description.getPackageName(), description.getName());
+        ClassName builderClassName = mappedClassName.nestedClass(description.getName() + "Builder");
+
+        CodeBlock.Builder transform = CodeBlock.builder()
+            .addStatement("$T builder = $T.builder()", builderClassName, mappedClassName)
+            .beginControlFlow("for ($T.Entry<$T, $T> attribute : item.entrySet())",
+                              Map.class, String.class, AttributeValue.class)
+            .addStatement("$T value = attribute.getValue()", AttributeValue.class)
+            .beginControlFlow("switch (attribute.getKey())");
+
+        for (FieldDescription field : description.getFieldDescriptions()) {
+            transform.add("case $S:\n", field.getAttribute())
+                .indent()
+                .addStatement("builder.$L($L)", field.getName(), field.getShards() > 0
+                    ? CodeBlock.of("$T.unshard(value.s())", ShardedKeys.class)
+                    : fromAttribute(field, CodeBlock.of("value")))
+                .addStatement("break")
+                .unindent();
+        }
+
+        return transform.add("default:\n")
+            .indent()
+            .addStatement("break")
+            .unindent()
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return builder.build()")
+            .build();
+    }
+
+    private boolean isCounter(@NotNull FieldDescription fieldDescription)
+    {
+        if (fieldDescription.isCounter() && !ScalarConversions.isNumber(fieldDescription)) {
+            logger.warn("Ignoring @DynamoDBCounter on non numeric field " + fieldDescription.getName());
+            return false;
+        }
+        return fieldDescription.isCounter();
+    }
+
+    /**
+     * Name of the Lombok getter of the field, which is {@code isX} for primitive booleans.
+     */
+    @NotNull
+    private static String getter(@NotNull FieldDescription fieldDescription)
+    {
+        String name = fieldDescription.getName();
+        if (!"boolean".equals(fieldDescription.getTypeName())) {
+            return "get" + TypoUtils.upperCaseFirstLetter(name);
+        }
+        return name.matches("is[A-Z].*") ? name : "is" + TypoUtils.upperCaseFirstLetter(name);
     }
 
     @NotNull
@@ -200,18 +383,21 @@ public class LiveDescriptionGenerator
     {
 
         ClassName mappedClassName = ClassName.get(description.getPackageName(), description.getName());
+        ClassName builderClassName = mappedClassName.nestedClass(description.getName() + "Builder");
 
         CodeBlock indentBlocks = CodeBlock.builder()
             .indent()
             .add(description.getFieldDescriptions()
                      .stream()
-                     .map(this::create)
+                     .map(it -> it.getShards() > 0
+                         ? createSharded(it, description, builderClassName)
+                         : create(it, builderClassName))
                      .collect(CodeBlock.joining(",\n ")))
             .unindent()
             .build();
 
-        return CodeBlock.of("super(()->$T.builder().build(), \n$T.asList($L));",
-                            mappedClassName, Arrays.class, indentBlocks);
+        return CodeBlock.of("super($T::builder, $T::build, \n$T.asList($L));",
+                            mappedClassName, builderClassName, Arrays.class, indentBlocks);
     }
 
     public CodeBlock createTableDefinition(@NotNull ClassUtils utils)
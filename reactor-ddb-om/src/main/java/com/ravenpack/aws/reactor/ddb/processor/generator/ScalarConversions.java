@@ -0,0 +1,104 @@
+package com.ravenpack.aws.reactor.ddb.processor.generator;
+
+import com.ravenpack.aws.reactor.ddb.processor.model.FieldDescription;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Generated code converting scalar fields to attributes and back, shared by the mappers and the filters.
+ * Numbers are parsed and formatted with the static methods of their class, which keeps primitive fields unboxed.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ScalarConversions
+{
+
+    /**
+     * Expression building the attribute out of the given, non null value.
+     */
+    @NotNull
+    static CodeBlock toAttribute(@NotNull FieldDescription fieldDescription, @NotNull CodeBlock value)
+    {
+        switch (fieldDescription.getDdbType()) {
+            case S:
+                return CodeBlock.of("$T.builder().s($L).build()", AttributeValue.class, value);
+            case C:
+                return CodeBlock.of("$T.builder().s($T.toValue($L)).build()",
+                                    AttributeValue.class, fieldDescription.getConversionClass(), value);
+            case E:
+                return CodeBlock.of("$T.builder().s($L.name()).build()", AttributeValue.class, value);
+            case BOOL:
+                return CodeBlock.of("$T.builder().bool($L).build()", AttributeValue.class, value);
+            case BD:
+                return CodeBlock.of("$T.builder().n($L.toString()).build()", AttributeValue.class, value);
+            case N:
+            case L:
+            case D:
+            case SH:
+            case F:
+                return CodeBlock.of("$T.builder().n($T.toString($L)).build()",
+                                    AttributeValue.class, fieldDescription.getDdbType().getClazz(), value);
+            default:
+                throw new NotSupportedTypeException(fieldDescription);
+        }
+    }
+
+    /**
+     * Expression decoding the given attribute into the value of the field.
+     */
+    @NotNull
+    static CodeBlock fromAttribute(@NotNull FieldDescription fieldDescription, @NotNull CodeBlock attribute)
+    {
+        switch (fieldDescription.getDdbType()) {
+            case S:
+                return CodeBlock.of("$L.s()", attribute);
+            case C:
+                return CodeBlock.of("$T.valueOf($L.s())", fieldDescription.getConversionClass(), attribute);
+            case E:
+                return CodeBlock.of("$T.valueOf($L.s())", ClassName.bestGuess(fieldDescription.getTypeName()),
+                                    attribute);
+            case BOOL:
+                return CodeBlock.of("$L.bool()", attribute);
+            case BD:
+                return CodeBlock.of("new $T($L.n())", fieldDescription.getDdbType().getClazz(), attribute);
+            case N:
+                return CodeBlock.of("$T.parseInt($L.n())", Integer.class, attribute);
+            case L:
+                return CodeBlock.of("$T.parseLong($L.n())", Long.class, attribute);
+            case D:
+                return CodeBlock.of("$T.parseDouble($L.n())", Double.class, attribute);
+            case SH:
+                return CodeBlock.of("$T.parseShort($L.n())", Short.class, attribute);
+            case F:
+                return CodeBlock.of("$T.parseFloat($L.n())", Float.class, attribute);
+            default:
+                throw new NotSupportedTypeException(fieldDescription);
+        }
+    }
+
+    static boolean isScalar(@NotNull FieldDescription fieldDescription)
+    {
+        return FieldDescription.DDBType.OTHER != fieldDescription.getDdbType();
+    }
+
+    static boolean isNumber(@NotNull FieldDescription fieldDescription)
+    {
+        return isScalar(fieldDescription) && "n".equals(fieldDescription.getDdbType().getSymbol());
+    }
+
+    /**
+     * Type of the field in the filters, which take null for no condition, so primitives are boxed.
+     */
+    @NotNull
+    static TypeName filterType(@NotNull FieldDescription fieldDescription)
+    {
+        if (fieldDescription.isPrimitive()) {
+            return ClassName.get(fieldDescription.getDdbType().getClazz());
+        }
+        return ClassName.bestGuess(fieldDescription.getTypeName());
+    }
+}
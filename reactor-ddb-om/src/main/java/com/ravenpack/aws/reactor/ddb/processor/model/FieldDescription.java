@@ -9,7 +9,12 @@ import lombok.ToString;
 import lombok.Value;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -17,7 +22,7 @@ import java.util.Optional;
 
 @Getter
 @ToString
-@Builder
+@Builder(toBuilder = true)
 public class FieldDescription
 {
     String typeName;
@@ -29,6 +34,16 @@ public class FieldDescription
     DDBType ddbType;
     boolean isHashKey;
     boolean isRangeKey;
+    boolean isCounter;
+    /**
+     * The field is of a primitive type, so it is never null.
+     */
+    boolean isPrimitive;
+    /**
+     * Declared as {@code Lazy} of the described type, decoded on first access.
+     */
+    boolean isLazy;
+    int shards;
     @Builder.Default
     List<String> globalIndexRange = Collections.emptyList();
     @Builder.Default
@@ -68,20 +83,54 @@ public class FieldDescription
         N("n", Integer.class, false) {
             public boolean match(Element e)
             {
-                return "java.lang.Integer".equals(e.asType().toString());
+                return Arrays.asList("java.lang.Integer", "int").contains(e.asType().toString());
             }
 
         },
         D("n", Double.class, false) {
             public boolean match(Element e)
             {
-                return "java.lang.Double".equals(e.asType().toString());
+                return Arrays.asList("java.lang.Double", "double").contains(e.asType().toString());
             }
         },
         L("n", Long.class, false) {
             public boolean match(Element e)
             {
-                return "java.lang.Long".equals(e.asType().toString());
+                return Arrays.asList("java.lang.Long", "long").contains(e.asType().toString());
+            }
+        },
+        SH("n", Short.class, false) {
+            public boolean match(Element e)
+            {
+                return Arrays.asList("java.lang.Short", "short").contains(e.asType().toString());
+            }
+        },
+        F("n", Float.class, false) {
+            public boolean match(Element e)
+            {
+                return Arrays.asList("java.lang.Float", "float").contains(e.asType().toString());
+            }
+        },
+        BD("n", BigDecimal.class, false) {
+            public boolean match(Element e)
+            {
+                return "java.math.BigDecimal".equals(e.asType().toString());
+            }
+        },
+        BOOL("bool", Boolean.class, false) {
+            public boolean match(Element e)
+            {
+                return Arrays.asList("java.lang.Boolean", "boolean").contains(e.asType().toString());
+            }
+        },
+        /**
+         * Stored by the name of the constant.
+         */
+        E("s", String.class, false) {
+            public boolean match(Element e)
+            {
+                return TypeKind.DECLARED == e.asType().getKind()
+                    && ElementKind.ENUM == ((DeclaredType) e.asType()).asElement().getKind();
             }
         },
         OTHER("UNKNONW", NotSupportedTypeException.class, false) {
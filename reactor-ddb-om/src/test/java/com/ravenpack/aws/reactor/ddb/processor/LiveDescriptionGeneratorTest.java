@@ -1,8 +1,11 @@
 package com.ravenpack.aws.reactor.ddb.processor;
 
+import com.ravenpack.aws.reactor.ddb.processor.generator.FilterMethodsCreator;
 import com.ravenpack.aws.reactor.ddb.processor.generator.LiveDescriptionGenerator;
 import com.ravenpack.aws.reactor.ddb.processor.model.ClassDescription;
 import com.ravenpack.aws.reactor.ddb.processor.model.FieldDescription;
+import com.ravenpack.aws.reactor.ddb.processor.model.IndexDescription;
+import com.squareup.javapoet.ClassName;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -30,6 +33,141 @@ class LiveDescriptionGeneratorTest
 
     }
 
+    @Test
+    void mapperHydratesThroughBuilder()
+    {
+
+        ClassDescription a = ClassDescription.builder()
+            .fieldDescriptions(Collections.singletonList(FieldDescription.builder()
+                                                             .typeName("java.lang.String")
+                                                             .ddbType(FieldDescription.DDBType.S)
+                                                             .name("payload")
+                                                             .attribute("payload")
+                                                             .build()))
+            .name("SomeClassName")
+            .packageName("some.package.name")
+            .build();
+
+        LiveDescriptionGenerator generator = new LiveDescriptionGenerator(new NormalLogger());
+        assertThat(generator.createMapper(a).toString())
+            .contains("SomeClassName.SomeClassNameBuilder::build")
+            .contains("(some.package.name.SomeClassName.SomeClassNameBuilder builder,")
+            .contains("builder.payload(")
+            .doesNotContain("withPayload");
+
+    }
+
+    @Test
+    void exportIsStraightLine()
+    {
+
+        ClassDescription a = ClassDescription.builder()
+            .fieldDescriptions(Arrays.asList(FieldDescription.builder()
+                                                 .typeName("java.lang.String")
+                                                 .ddbType(FieldDescription.DDBType.S)
+                                                 .isHashKey(true)
+                                                 .name("uid")
+                                                 .attribute("uid")
+                                                 .build(),
+                                             FieldDescription.builder()
+                                                 .typeName("java.lang.Integer")
+                                                 .ddbType(FieldDescription.DDBType.N)
+                                                 .name("val")
+                                                 .attribute("value")
+                                                 .build()))
+            .name("SomeClassName")
+            .packageName("some.package.name")
+            .build();
+
+        LiveDescriptionGenerator generator = new LiveDescriptionGenerator(new NormalLogger());
+        assertThat(generator.createExport(a, false).toString())
+            .contains("new java.util.HashMap<>(3)")
+            .contains("if (null != value.getVal())")
+            .contains("item.put(\"value\", ")
+            .doesNotContain("Optional");
+        assertThat(generator.createExport(a, true).toString())
+            .contains("item.put(\"uid\", ")
+            .doesNotContain("getVal");
+
+    }
+
+    @Test
+    void transformSwitchesOnAttributeName()
+    {
+
+        ClassDescription a = ClassDescription.builder()
+            .fieldDescriptions(Arrays.asList(FieldDescription.builder()
+                                                 .typeName("java.lang.String")
+                                                 .ddbType(FieldDescription.DDBType.S)
+                                                 .isHashKey(true)
+                                                 .name("uid")
+                                                 .attribute("uid")
+                                                 .build(),
+                                             FieldDescription.builder()
+                                                 .typeName("java.lang.Integer")
+                                                 .ddbType(FieldDescription.DDBType.N)
+                                                 .name("val")
+                                                 .attribute("value")
+                                                 .build()))
+            .name("SomeClassName")
+            .packageName("some.package.name")
+            .build();
+
+        LiveDescriptionGenerator generator = new LiveDescriptionGenerator(new NormalLogger());
+        assertThat(generator.createTransform(a).toString())
+            .contains("switch (attribute.getKey())")
+            .contains("case \"uid\":")
+            .contains("builder.uid(value.s());")
+            .contains("case \"value\":")
+            .contains("builder.val(java.lang.Integer.parseInt(value.n()));")
+            .contains("return builder.build();");
+
+    }
+
+    @Test
+    void lazyListKeepsAttribute()
+    {
+
+        ClassDescription a = ClassDescription.builder()
+            .fieldDescriptions(Collections.singletonList(FieldDescription.builder()
+                                                             .typeName("java.util.List<some.package.name.Doc>")
+                                                             .typeArguments(Collections.singletonList("Doc"))
+                                                             .ddbType(FieldDescription.DDBType.OTHER)
+                                                             .isLazy(true)
+                                                             .name("docs")
+                                                             .attribute("docs")
+                                                             .build()))
+            .name("SomeClassName")
+            .packageName("some.package.name")
+            .build();
+
+        LiveDescriptionGenerator generator = new LiveDescriptionGenerator(new NormalLogger());
+        assertThat(generator.createTransform(a).toString())
+            .contains("builder.docs(com.ravenpack.aws.reactor.ddb.mapper.Lazy.decoding(value, raw -> raw.l()");
+        assertThat(generator.createExport(a, false).toString())
+            .contains("item.put(\"docs\", value.getDocs().export(decoded -> ");
+
+    }
+
+    @Test
+    void booleanFiltersOnlyCompareForEquality()
+    {
+
+        IndexDescription index = IndexDescription.builder()
+            .attributes(Collections.singletonList(FieldDescription.builder()
+                                                      .typeName("java.lang.Boolean")
+                                                      .ddbType(FieldDescription.DDBType.BOOL)
+                                                      .name("active")
+                                                      .attribute("active")
+                                                      .build()))
+            .build();
+
+        assertThat(FilterMethodsCreator.createAllFiltersMethod(ClassName.get("some.package.name", "Filter"), index))
+            .extracting(it -> it.name)
+            .containsExactlyInAnyOrder("activeEquals", "activeNotEquals", "activeIsNull", "activeIsNotNull");
+
+    }
+
     @Test
     void testSimpleTableStructure()
     {
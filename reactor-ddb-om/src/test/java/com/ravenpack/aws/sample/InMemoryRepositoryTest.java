@@ -0,0 +1,168 @@
+package com.ravenpack.aws.sample;
+
+import com.ravenpack.aws.reactor.ddb.InMemoryRxDynamo;
+import com.ravenpack.aws.reactor.ddb.RxDynamo;
+import com.ravenpack.aws.reactor.ddb.mapper.Lazy;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTable;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository;
+import com.ravenpack.aws.sample.model.CounterTable;
+import com.ravenpack.aws.sample.model.CounterTableRepository;
+import com.ravenpack.aws.sample.model.GlobalRangeIndexTable;
+import com.ravenpack.aws.sample.model.GlobalRangeIndexTableRepository;
+import com.ravenpack.aws.sample.model.LazyDocumentTable;
+import com.ravenpack.aws.sample.model.LazyDocumentTableRepository;
+import com.ravenpack.aws.sample.model.ScalarTypesTable;
+import com.ravenpack.aws.sample.model.ScalarTypesTableRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generated repositories on top of {@link InMemoryRxDynamo}, without Localstack.
+ */
+class InMemoryRepositoryTest
+{
+    private final RxDynamo rxDynamo = new InMemoryRxDynamo();
+
+    @Test
+    void differenceUpdate()
+    {
+        CounterTableRepository repo = new CounterTableRepository(rxDynamo, "counter");
+        rxDynamo.createTable(repo.createTable()).block();
+
+        CounterTable item = CounterTable.builder()
+            .uid("someUID")
+            .payload("ABC")
+            .range("A")
+            .hits(1)
+            .build();
+
+        repo.create(item).block();
+
+        repo.update(item, item.withPayload(null).withHits(3)).block();
+        repo.update(item, item.withHits(2)).block();
+
+        StepVerifier.create(repo.getAll())
+            .expectNext(item.withPayload(null).withHits(4))
+            .verifyComplete();
+    }
+
+    @Test
+    void filteredQuery()
+    {
+        CompositePrimaryIndexTableRepository repo = new CompositePrimaryIndexTableRepository(rxDynamo, "composite");
+        rxDynamo.createTable(repo.createTable()).block();
+
+        Flux.range(0, 20)
+            .map(i -> CompositePrimaryIndexTable.builder()
+                .uid("uid")
+                .range(String.format("range%02d", i))
+                .val(i)
+                .build())
+            .transform(repo::createAll)
+            .blockLast();
+
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("uid").rangeGraterThan("range05").end()
+                                .filter().valLessThen(9).end()
+                                .execute()
+                                .map(CompositePrimaryIndexTable::getVal))
+            .expectNext(6, 7, 8)
+            .verifyComplete();
+    }
+
+    @Test
+    void globalSecondaryIndexQuery()
+    {
+        GlobalRangeIndexTableRepository repo = new GlobalRangeIndexTableRepository(rxDynamo, "global");
+        rxDynamo.createTable(repo.createTable()).block();
+
+        GlobalRangeIndexTable item = GlobalRangeIndexTable.builder()
+            .uid("someUID")
+            .globalId("otherId")
+            .globalRange("someRange")
+            .payload("payload")
+            .build();
+
+        Flux.just(item, item.withUid("sparse").withGlobalId(null))
+            .transform(repo::createAll)
+            .blockLast();
+
+        StepVerifier.create(repo.globalsecondaryindexname()
+                                .keyFilter().globalIdEquals("otherId").end()
+                                .execute())
+            .expectNext(item)
+            .verifyComplete();
+
+        StepVerifier.create(repo.globalsecondaryindexname().execute().count())
+            .expectNext(1L)
+            .verifyComplete();
+    }
+
+    @Test
+    void scalarTypesRoundTrip()
+    {
+        ScalarTypesTableRepository repo = new ScalarTypesTableRepository(rxDynamo, "scalars");
+        rxDynamo.createTable(repo.createTable()).block();
+
+        ScalarTypesTable item = ScalarTypesTable.builder()
+            .uid("someUID")
+            .sequence(7L)
+            .count(3)
+            .ratio(0.25)
+            .active(true)
+            .verified(false)
+            .amount(new BigDecimal("12.50"))
+            .level((short) 2)
+            .score(1.5f)
+            .status(ScalarTypesTable.Status.DONE)
+            .build();
+
+        Flux.just(item, item.withSequence(8L).withActive(false).withStatus(ScalarTypesTable.Status.NEW))
+            .transform(repo::createAll)
+            .blockLast();
+
+        repo.update(item, item.withCount(5).withAmount(null)).block();
+
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("someUID").sequenceGraterThan(6L).end()
+                                .filter().statusEquals(ScalarTypesTable.Status.DONE).end()
+                                .execute())
+            .expectNext(item.withCount(5).withAmount(null))
+            .verifyComplete();
+    }
+
+    @Test
+    void lazyDocumentsAreDecodedOnAccess()
+    {
+        LazyDocumentTableRepository repo = new LazyDocumentTableRepository(rxDynamo, "lazy");
+        rxDynamo.createTable(repo.createTable()).block();
+
+        LazyDocumentTable.Content content = LazyDocumentTable.Content.builder().payload("content").build();
+        LazyDocumentTable item = LazyDocumentTable.builder()
+            .uid("someUID")
+            .payload("payload")
+            .content(Lazy.of(content))
+            .history(Lazy.of(Arrays.asList(content.withPayload("first"), content.withPayload("second"))))
+            .build();
+
+        repo.create(item).block();
+
+        LazyDocumentTable read = repo.getAll().blockFirst();
+        assertThat(read.getPayload()).isEqualTo("payload");
+        assertThat(read.getContent().isDecoded()).isFalse();
+        assertThat(read.getHistory().isDecoded()).isFalse();
+
+        repo.update(read, read.withPayload("changed")).block();
+        assertThat(read.getHistory().isDecoded()).isFalse();
+
+        StepVerifier.create(repo.getAll())
+            .expectNext(item.withPayload("changed"))
+            .verifyComplete();
+    }
+}
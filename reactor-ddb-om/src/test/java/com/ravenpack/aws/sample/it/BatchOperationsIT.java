@@ -0,0 +1,116 @@
+package com.ravenpack.aws.sample.it;
+
+import com.ravenpack.aws.reactor.Localstack;
+import com.ravenpack.aws.reactor.TestHelperDynamoDB;
+import com.ravenpack.aws.reactor.ddb.RxDynamo;
+import com.ravenpack.aws.reactor.ddb.RxDynamoImpl;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTable;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.util.UUID;
+
+@Slf4j
+@Testcontainers
+class BatchOperationsIT
+{
+    @Container
+    private static final Localstack localstack =  new Localstack()
+            .withServices(Localstack.Service.DDB)
+            .withLogConsumer(new Slf4jLogConsumer(log));
+
+    private final TestHelperDynamoDB testHelperDynamoDB = new TestHelperDynamoDB(localstack);
+
+    private  DynamoDbAsyncClient ddbClient = testHelperDynamoDB.getDdbAsyncClient();
+    private final RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+    private CompositePrimaryIndexTableRepository repo;
+
+    @BeforeEach
+    void prepareTable()
+    {
+        repo = new CompositePrimaryIndexTableRepository(rxDynamo, getTableName());
+        rxDynamo.createTable(repo.createTable()).block();
+    }
+
+    @Test
+    void getByKeysTest()
+    {
+        Flux.range(0, 250)
+            .map(this::createItem)
+            .flatMap(repo::create)
+            .blockLast();
+
+        StepVerifier.create(Flux.range(0, 300)
+                                .map(this::createKey)
+                                .transform(repo::getByKeys)
+                                .count())
+            .expectNext(250L)
+            .verifyComplete();
+    }
+
+    @Test
+    void getTest()
+    {
+        repo.create(createItem(1)).block();
+
+        StepVerifier.create(repo.get(createKey(1)))
+            .expectNext(createItem(1))
+            .verifyComplete();
+
+        StepVerifier.create(repo.get(createKey(2)))
+            .verifyComplete();
+    }
+
+    @Test
+    void createAllAndDeleteAllTest()
+    {
+        StepVerifier.create(Flux.range(0, 120)
+                                .map(this::createItem)
+                                .transform(repo::createAll)
+                                .count())
+            .expectNext(120L)
+            .verifyComplete();
+
+        StepVerifier.create(repo.getAll().count()).expectNext(120L).verifyComplete();
+
+        StepVerifier.create(Flux.range(0, 100)
+                                .map(this::createKey)
+                                .transform(repo::deleteAll))
+            .verifyComplete();
+
+        StepVerifier.create(repo.getAll().count()).expectNext(20L).verifyComplete();
+    }
+
+    private CompositePrimaryIndexTable createKey(int i)
+    {
+        return CompositePrimaryIndexTable.builder()
+            .uid("uid" + i % 7)
+            .range("range" + i)
+            .build();
+    }
+
+    private CompositePrimaryIndexTable createItem(int i)
+    {
+        return createKey(i)
+            .withPayload("payload" + i)
+            .withVal(i);
+    }
+
+    private static String getTableNamePrefix(){
+        return BatchOperationsIT.class.getSimpleName();
+    }
+
+    private String getTableName()
+    {
+        return getTableNamePrefix() + UUID.randomUUID();
+    }
+}
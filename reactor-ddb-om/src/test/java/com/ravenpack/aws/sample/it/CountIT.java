@@ -0,0 +1,95 @@
+package com.ravenpack.aws.sample.it;
+
+import com.ravenpack.aws.reactor.Localstack;
+import com.ravenpack.aws.reactor.TestHelperDynamoDB;
+import com.ravenpack.aws.reactor.ddb.DynamoSearch;
+import com.ravenpack.aws.reactor.ddb.RxDynamo;
+import com.ravenpack.aws.reactor.ddb.RxDynamoImpl;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTable;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.util.UUID;
+
+@Slf4j
+@Testcontainers
+class CountIT
+{
+    @Container
+    private static final Localstack localstack =  new Localstack()
+            .withServices(Localstack.Service.DDB)
+            .withLogConsumer(new Slf4jLogConsumer(log));
+
+    private final TestHelperDynamoDB testHelperDynamoDB = new TestHelperDynamoDB(localstack);
+
+    private  DynamoDbAsyncClient ddbClient = testHelperDynamoDB.getDdbAsyncClient();
+    private final RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+    private final String tableName = getTableName();
+
+    private CompositePrimaryIndexTableRepository repo;
+
+    @BeforeEach
+    void prepareTable()
+    {
+        repo = new CompositePrimaryIndexTableRepository(rxDynamo, tableName);
+        rxDynamo.createTable(repo.createTable()).block();
+
+        Flux.range(0, 25)
+            .map(i -> CompositePrimaryIndexTable.builder()
+                .uid(i < 20 ? "uid" : "other")
+                .range(String.format("range%02d", i))
+                .val(i)
+                .build())
+            .transform(repo::createAll)
+            .blockLast();
+    }
+
+    @Test
+    void countMatchingItems()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("uid").end()
+                                .filter().valGraterOrEquals(5).end()
+                                .count())
+            .expectNext(15L)
+            .verifyComplete();
+    }
+
+    @Test
+    void existsMatchingItem()
+    {
+        StepVerifier.create(repo.primary().keyFilter().uidEquals("uid").end().exists())
+            .expectNext(true)
+            .verifyComplete();
+
+        StepVerifier.create(repo.primary().keyFilter().uidEquals("none").end().exists())
+            .expectNext(false)
+            .verifyComplete();
+    }
+
+    @Test
+    void parallelCountWholeTable()
+    {
+        StepVerifier.create(rxDynamo.parallelCount(DynamoSearch.builder().tableName(tableName).build(), 4, 2))
+            .expectNext(25L)
+            .verifyComplete();
+    }
+
+    private static String getTableNamePrefix(){
+        return CountIT.class.getSimpleName();
+    }
+
+    private String getTableName()
+    {
+        return getTableNamePrefix() + UUID.randomUUID();
+    }
+}
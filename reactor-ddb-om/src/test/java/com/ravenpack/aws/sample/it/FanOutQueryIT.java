@@ -0,0 +1,136 @@
+package com.ravenpack.aws.sample.it;
+
+import com.ravenpack.aws.reactor.Localstack;
+import com.ravenpack.aws.reactor.TestHelperDynamoDB;
+import com.ravenpack.aws.reactor.ddb.Page;
+import com.ravenpack.aws.reactor.ddb.RangeSplits;
+import com.ravenpack.aws.reactor.ddb.RxDynamo;
+import com.ravenpack.aws.reactor.ddb.RxDynamoImpl;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTable;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@Testcontainers
+class FanOutQueryIT
+{
+    @Container
+    private static final Localstack localstack =  new Localstack()
+            .withServices(Localstack.Service.DDB)
+            .withLogConsumer(new Slf4jLogConsumer(log));
+
+    private final TestHelperDynamoDB testHelperDynamoDB = new TestHelperDynamoDB(localstack);
+
+    private  DynamoDbAsyncClient ddbClient = testHelperDynamoDB.getDdbAsyncClient();
+    private final RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+    private final String tableName = getTableName();
+
+    private CompositePrimaryIndexTableRepository repo;
+
+    @BeforeEach
+    void prepareTable()
+    {
+        repo = new CompositePrimaryIndexTableRepository(rxDynamo, tableName);
+        rxDynamo.createTable(repo.createTable()).block();
+
+        Flux.range(0, 30)
+            .map(i -> CompositePrimaryIndexTable.builder()
+                .uid("uid" + i % 3)
+                .range(String.format("range%02d", i))
+                .val(i)
+                .build())
+            .transform(repo::createAll)
+            .blockLast();
+    }
+
+    @Test
+    void queryEveryHashKey()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidIn(Arrays.asList("uid0", "uid2", "missing")).end()
+                                .execute()
+                                .map(CompositePrimaryIndexTable::getVal)
+                                .collectList())
+            .assertNext(it -> assertThat(it).hasSize(20).allMatch(val -> val % 3 != 1))
+            .verifyComplete();
+    }
+
+    @Test
+    void mergeHashKeysByRangeKey()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidIn(Arrays.asList("uid0", "uid1", "uid2")).end()
+                                .select("uid", "val")
+                                .executeOrdered()
+                                .map(CompositePrimaryIndexTable::getVal))
+            .expectNextSequence(IntStream.range(0, 30).boxed().collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    @Test
+    void parallelQueryMergesHashKeysByRangeKey()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidIn(Arrays.asList("uid0", "uid1", "uid2")).end()
+                                .executeParallel(RangeSplits.strings("range10", "range20"), 2)
+                                .map(CompositePrimaryIndexTable::getVal))
+            .expectNextSequence(IntStream.range(0, 30).boxed().collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    @Test
+    void pageThroughEveryHashKey()
+    {
+        List<Integer> vals = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<CompositePrimaryIndexTable> page = repo.primary()
+                .keyFilter().uidIn(Arrays.asList("uid0", "uid2", "missing")).end()
+                .executePage(cursor, 7)
+                .block();
+
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(7);
+            page.getItems().forEach(it -> vals.add(it.getVal()));
+            cursor = page.getCursor();
+        } while (null != cursor);
+
+        assertThat(vals).hasSize(20).doesNotHaveDuplicates().allMatch(val -> val % 3 != 1);
+    }
+
+    @Test
+    void countEveryHashKey()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidIn(Arrays.asList("uid0", "uid1")).end()
+                                .count())
+            .expectNext(20L)
+            .verifyComplete();
+    }
+
+    private static String getTableNamePrefix(){
+        return FanOutQueryIT.class.getSimpleName();
+    }
+
+    private String getTableName()
+    {
+        return getTableNamePrefix() + UUID.randomUUID();
+    }
+}
@@ -67,6 +67,20 @@ class FilteringConditionIT
         StepVerifier.create(repo1.primary().execute().count()).expectNext(1L).verifyComplete();
     }
 
+    @Test
+    void parallelScanTest()
+    {
+        StepVerifier.create(repo1.getAll(4).count()).expectNext(1L).verifyComplete();
+    }
+
+    @Test
+    void projectionTest()
+    {
+        StepVerifier.create(repo1.primary().select("uid", "range", "val").execute())
+            .expectNextMatches(it -> it.getPayload() == null && it.getFuzzyVal() == null && it.getVal() == 123)
+            .verifyComplete();
+    }
+
     private void checkFilter(
         long expected,
         Function<CompositePrimaryIndexTableRepository.nullCustomSearch, CompositePrimaryIndexTableRepository.nullCustomSearch> f)
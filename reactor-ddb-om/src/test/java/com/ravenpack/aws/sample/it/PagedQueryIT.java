@@ -0,0 +1,121 @@
+package com.ravenpack.aws.sample.it;
+
+import com.ravenpack.aws.reactor.Localstack;
+import com.ravenpack.aws.reactor.TestHelperDynamoDB;
+import com.ravenpack.aws.reactor.ddb.Page;
+import com.ravenpack.aws.reactor.ddb.RangeSplits;
+import com.ravenpack.aws.reactor.ddb.RxDynamo;
+import com.ravenpack.aws.reactor.ddb.RxDynamoImpl;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTable;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@Testcontainers
+class PagedQueryIT
+{
+    @Container
+    private static final Localstack localstack =  new Localstack()
+            .withServices(Localstack.Service.DDB)
+            .withLogConsumer(new Slf4jLogConsumer(log));
+
+    private final TestHelperDynamoDB testHelperDynamoDB = new TestHelperDynamoDB(localstack);
+
+    private  DynamoDbAsyncClient ddbClient = testHelperDynamoDB.getDdbAsyncClient();
+    private final RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+    private CompositePrimaryIndexTableRepository repo;
+
+    @BeforeEach
+    void prepareTable()
+    {
+        repo = new CompositePrimaryIndexTableRepository(rxDynamo, getTableName());
+        rxDynamo.createTable(repo.createTable()).block();
+
+        Flux.range(0, 25)
+            .map(i -> CompositePrimaryIndexTable.builder()
+                .uid("uid")
+                .range(String.format("range%02d", i))
+                .val(i)
+                .build())
+            .transform(repo::createAll)
+            .blockLast();
+    }
+
+    @Test
+    void resumeFromCursor()
+    {
+        Page<CompositePrimaryIndexTable> first = repo.primary()
+            .keyFilter().uidEquals("uid").end()
+            .executePage(null, 10)
+            .block();
+
+        assertThat(first.getItems()).hasSize(10);
+        assertThat(first.getItems().get(0).getRange()).isEqualTo("range00");
+        assertThat(first.getCursor()).isNotNull();
+
+        Page<CompositePrimaryIndexTable> second = repo.primary()
+            .keyFilter().uidEquals("uid").end()
+            .executePage(first.getCursor(), 10)
+            .block();
+
+        assertThat(second.getItems()).hasSize(10);
+        assertThat(second.getItems().get(0).getRange()).isEqualTo("range10");
+    }
+
+    @Test
+    void filteredPagesAreFilledUp()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("uid").end()
+                                .filter().valGraterOrEquals(5).end()
+                                .executePage(null, 15))
+            .expectNextMatches(it -> it.getItems().size() == 15 && it.getItems().get(0).getVal() == 5)
+            .verifyComplete();
+    }
+
+    @Test
+    void parallelQueryKeepsRangeOrder()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("uid").end()
+                                .executeParallel(RangeSplits.strings("range05", "range10", "range20"), 2)
+                                .map(CompositePrimaryIndexTable::getVal))
+            .expectNextSequence(IntStream.range(0, 25).boxed().collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    @Test
+    void parallelQueryWithinRangeCondition()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("uid").rangeGraterThan("range05").end()
+                                .executeParallel(RangeSplits.strings("range01", "range10"), 2)
+                                .map(CompositePrimaryIndexTable::getVal))
+            .expectNextSequence(IntStream.range(6, 25).boxed().collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    private static String getTableNamePrefix(){
+        return PagedQueryIT.class.getSimpleName();
+    }
+
+    private String getTableName()
+    {
+        return getTableNamePrefix() + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ravenpack.aws.sample.it;
+
+import com.ravenpack.aws.reactor.Localstack;
+import com.ravenpack.aws.reactor.TestHelperDynamoDB;
+import com.ravenpack.aws.reactor.ddb.DynamoSearch;
+import com.ravenpack.aws.reactor.ddb.Page;
+import com.ravenpack.aws.reactor.ddb.RangeSplits;
+import com.ravenpack.aws.reactor.ddb.RxDynamo;
+import com.ravenpack.aws.reactor.ddb.RxDynamoImpl;
+import com.ravenpack.aws.sample.model.ShardedHashKeyTable;
+import com.ravenpack.aws.sample.model.ShardedHashKeyTableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@Testcontainers
+class ShardedHashKeyIT
+{
+    @Container
+    private static final Localstack localstack =  new Localstack()
+            .withServices(Localstack.Service.DDB)
+            .withLogConsumer(new Slf4jLogConsumer(log));
+
+    private final TestHelperDynamoDB testHelperDynamoDB = new TestHelperDynamoDB(localstack);
+
+    private  DynamoDbAsyncClient ddbClient = testHelperDynamoDB.getDdbAsyncClient();
+    private final RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+    private final String tableName = getTableName();
+
+    private ShardedHashKeyTableRepository repo;
+
+    @BeforeEach
+    void prepareTable()
+    {
+        repo = new ShardedHashKeyTableRepository(rxDynamo, tableName);
+        rxDynamo.createTable(repo.createTable()).block();
+
+        Flux.range(0, 20)
+            .map(i -> ShardedHashKeyTable.builder()
+                .uid(i < 16 ? "hot" : "cold")
+                .range(String.format("range%02d", i))
+                .payload("payload" + i)
+                .build())
+            .transform(repo::createAll)
+            .blockLast();
+    }
+
+    @Test
+    void writesAreSpreadOverShards()
+    {
+        StepVerifier.create(rxDynamo.scan(DynamoSearch.builder().tableName(tableName).build())
+                                .map(it -> it.get("uid").s())
+                                .filter(it -> it.startsWith("hot#"))
+                                .distinct()
+                                .count())
+            .assertNext(it -> assertThat(it).isGreaterThan(1L))
+            .verifyComplete();
+    }
+
+    @Test
+    void getByLogicalKey()
+    {
+        ShardedHashKeyTable key = ShardedHashKeyTable.builder().uid("hot").range("range07").build();
+
+        StepVerifier.create(repo.get(key))
+            .expectNext(key.withPayload("payload7"))
+            .verifyComplete();
+    }
+
+    @Test
+    void queryGathersAllShardsInOrder()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("hot").end()
+                                .executeOrdered()
+                                .map(ShardedHashKeyTable::getRange))
+            .expectNextSequence(IntStream.range(0, 16)
+                                    .mapToObj(it -> String.format("range%02d", it))
+                                    .collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    @Test
+    void executeKeepsTheOrderOfTheRangeKey()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("hot").end()
+                                .execute()
+                                .map(ShardedHashKeyTable::getRange))
+            .expectNextSequence(IntStream.range(0, 16)
+                                    .mapToObj(it -> String.format("range%02d", it))
+                                    .collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    @Test
+    void parallelQueryGathersAllShardsInOrder()
+    {
+        StepVerifier.create(repo.primary()
+                                .keyFilter().uidEquals("hot").end()
+                                .executeParallel(RangeSplits.strings("range05", "range10"), 2)
+                                .map(ShardedHashKeyTable::getRange))
+            .expectNextSequence(IntStream.range(0, 16)
+                                    .mapToObj(it -> String.format("range%02d", it))
+                                    .collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    @Test
+    void pagesGoThroughAllShards()
+    {
+        List<String> ranges = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<ShardedHashKeyTable> page = repo.primary()
+                .keyFilter().uidEquals("hot").end()
+                .executePage(cursor, 5)
+                .block();
+
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(5).allMatch(it -> "hot".equals(it.getUid()));
+            page.getItems().forEach(it -> ranges.add(it.getRange()));
+            cursor = page.getCursor();
+        } while (null != cursor);
+
+        assertThat(ranges).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 16)
+                                                                    .mapToObj(it -> String.format("range%02d", it))
+                                                                    .collect(Collectors.toList()));
+    }
+
+    private static String getTableNamePrefix(){
+        return ShardedHashKeyIT.class.getSimpleName();
+    }
+
+    private String getTableName()
+    {
+        return getTableNamePrefix() + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ravenpack.aws.sample.it;
+
+import com.ravenpack.aws.reactor.Localstack;
+import com.ravenpack.aws.reactor.TestHelperDynamoDB;
+import com.ravenpack.aws.reactor.ddb.RxDynamo;
+import com.ravenpack.aws.reactor.ddb.RxDynamoImpl;
+import com.ravenpack.aws.reactor.ddb.TransactionFailedException;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTable;
+import com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository.COMPOSITE_PRIMARY_INDEX_TABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@Testcontainers
+class TransactionIT
+{
+    @Container
+    private static final Localstack localstack =  new Localstack()
+            .withServices(Localstack.Service.DDB)
+            .withLogConsumer(new Slf4jLogConsumer(log));
+
+    private final TestHelperDynamoDB testHelperDynamoDB = new TestHelperDynamoDB(localstack);
+
+    private  DynamoDbAsyncClient ddbClient = testHelperDynamoDB.getDdbAsyncClient();
+    private final RxDynamo rxDynamo = new RxDynamoImpl(ddbClient);
+
+    private CompositePrimaryIndexTableRepository repo;
+
+    @BeforeEach
+    void prepareTable()
+    {
+        repo = new CompositePrimaryIndexTableRepository(rxDynamo, getTableName());
+        rxDynamo.createTable(repo.createTable()).block();
+    }
+
+    @Test
+    void writeInTransaction()
+    {
+        repo.create(createItem(1)).block();
+
+        StepVerifier.create(repo.transaction()
+                                .create(createItem(2))
+                                .update(createItem(1).withPayload("updated"))
+                                .execute())
+            .verifyComplete();
+
+        StepVerifier.create(repo.get(createItem(1)).map(CompositePrimaryIndexTable::getPayload))
+            .expectNext("updated")
+            .verifyComplete();
+        StepVerifier.create(repo.getAll().count()).expectNext(2L).verifyComplete();
+
+        StepVerifier.create(repo.transaction().delete(createItem(1)).delete(createItem(2)).execute())
+            .verifyComplete();
+        StepVerifier.create(repo.getAll().count()).expectNext(0L).verifyComplete();
+    }
+
+    @Test
+    void cancellationReasonsPointAtItems()
+    {
+        TransactWriteItem check = TransactWriteItem.builder()
+            .conditionCheck(ConditionCheck.builder()
+                                .tableName(repo.getTableName())
+                                .key(COMPOSITE_PRIMARY_INDEX_TABLE.exportKeys(createItem(3)))
+                                .conditionExpression("attribute_exists(uid)")
+                                .build())
+            .build();
+
+        List<TransactWriteItem> items = new ArrayList<>(repo.transaction().create(createItem(1)).items());
+        items.add(check);
+
+        StepVerifier.create(rxDynamo.transactWrite(items))
+            .expectErrorSatisfies(e -> assertThat(((TransactionFailedException) e).getReasons())
+                .containsOnlyKeys(check))
+            .verify();
+
+        StepVerifier.create(repo.getAll().count()).expectNext(0L).verifyComplete();
+    }
+
+    private CompositePrimaryIndexTable createItem(int i)
+    {
+        return CompositePrimaryIndexTable.builder()
+            .uid("uid")
+            .range("range" + i)
+            .payload("payload" + i)
+            .build();
+    }
+
+    private static String getTableNamePrefix(){
+        return TransactionIT.class.getSimpleName();
+    }
+
+    private String getTableName()
+    {
+        return getTableNamePrefix() + UUID.randomUUID();
+    }
+}
@@ -6,6 +6,8 @@ import com.ravenpack.aws.reactor.ddb.RxDynamo;
 import com.ravenpack.aws.reactor.ddb.RxDynamoImpl;
 import com.ravenpack.aws.sample.model.CompositePrimaryIndexTable;
 import com.ravenpack.aws.sample.model.CompositePrimaryIndexTableRepository;
+import com.ravenpack.aws.sample.model.CounterTable;
+import com.ravenpack.aws.sample.model.CounterTableRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
@@ -55,6 +57,31 @@ class UpdateRecordIT
         StepVerifier.create(repo.getAll()).expectNext(item).verifyComplete();
     }
 
+    @Test
+    void differenceUpdate()
+    {
+        CounterTableRepository repo = new CounterTableRepository(rxDynamo, getTableName());
+
+        rxDynamo.createTable(repo.createTable())
+            .block();
+
+        CounterTable item = CounterTable.builder()
+            .uid("someUID")
+            .payload("ABC")
+            .range("A")
+            .hits(1)
+            .build();
+
+        repo.create(item).block();
+
+        repo.update(item, item.withPayload(null).withHits(3)).block();
+        repo.update(item, item.withHits(2)).block();
+
+        StepVerifier.create(repo.getAll())
+            .expectNext(item.withPayload(null).withHits(4))
+            .verifyComplete();
+    }
+
     private static String getTableNamePrefix(){
         return UpdateRecordIT.class.getSimpleName();
     }
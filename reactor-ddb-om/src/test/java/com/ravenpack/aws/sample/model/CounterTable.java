@@ -0,0 +1,27 @@
+package com.ravenpack.aws.sample.model;
+
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBCounter;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBHashKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBRangeKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBTable;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+@With
+@Value
+@Builder
+@DynamoDBTable
+public class CounterTable
+{
+    @DynamoDBHashKey
+    String uid;
+
+    @DynamoDBRangeKey
+    String range;
+
+    String payload;
+
+    @DynamoDBCounter
+    Integer hits;
+}
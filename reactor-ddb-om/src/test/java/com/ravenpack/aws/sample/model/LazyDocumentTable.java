@@ -0,0 +1,36 @@
+package com.ravenpack.aws.sample.model;
+
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBDocument;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBHashKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBTable;
+import com.ravenpack.aws.reactor.ddb.mapper.Lazy;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+import java.util.List;
+
+@With
+@Value
+@Builder
+@DynamoDBTable
+public class LazyDocumentTable
+{
+    @DynamoDBHashKey
+    String uid;
+
+    String payload;
+
+    Lazy<Content> content;
+
+    Lazy<List<Content>> history;
+
+    @With
+    @Value
+    @Builder
+    @DynamoDBDocument
+    public static class Content
+    {
+        String payload;
+    }
+}
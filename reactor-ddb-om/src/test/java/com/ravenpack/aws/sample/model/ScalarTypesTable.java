@@ -0,0 +1,46 @@
+package com.ravenpack.aws.sample.model;
+
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBCounter;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBHashKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBRangeKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBTable;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+import java.math.BigDecimal;
+
+@With
+@Value
+@Builder
+@DynamoDBTable
+public class ScalarTypesTable
+{
+    @DynamoDBHashKey
+    String uid;
+
+    @DynamoDBRangeKey
+    long sequence;
+
+    @DynamoDBCounter
+    int count;
+
+    double ratio;
+
+    boolean active;
+
+    Boolean verified;
+
+    BigDecimal amount;
+
+    Short level;
+
+    Float score;
+
+    Status status;
+
+    public enum Status
+    {
+        NEW, DONE
+    }
+}
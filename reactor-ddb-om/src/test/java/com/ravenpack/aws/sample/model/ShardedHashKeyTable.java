@@ -0,0 +1,23 @@
+package com.ravenpack.aws.sample.model;
+
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBRangeKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBShardedHashKey;
+import com.ravenpack.aws.reactor.ddb.datamodeling.DynamoDBTable;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+@DynamoDBTable
+@Value
+@Builder
+@With
+public class ShardedHashKeyTable
+{
+    @DynamoDBShardedHashKey(shards = 4)
+    String uid;
+
+    @DynamoDBRangeKey
+    String range;
+
+    String payload;
+}